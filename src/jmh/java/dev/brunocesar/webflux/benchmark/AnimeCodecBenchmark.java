@@ -0,0 +1,106 @@
+package dev.brunocesar.webflux.benchmark;
+
+import dev.brunocesar.webflux.domain.Anime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Anime JSON encoding and decoding through the same Jackson codecs WebFlux uses for request and response bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimeCodecBenchmark {
+
+    private static final ResolvableType ANIME_TYPE = ResolvableType.forClass(Anime.class);
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    private Jackson2JsonEncoder encoder;
+
+    private Jackson2JsonDecoder decoder;
+
+    private Anime anime;
+
+    private List<Anime> animes;
+
+    private byte[] animeJson;
+
+    @Setup
+    public void setup() {
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        encoder = new Jackson2JsonEncoder(objectMapper);
+        decoder = new Jackson2JsonDecoder(objectMapper);
+        anime = new Anime(1, "Fullmetal Alchemist: Brotherhood");
+        animes = IntStream.rangeClosed(1, 100)
+                .mapToObj(id -> new Anime(id, "Anime " + id))
+                .collect(Collectors.toList());
+        animeJson = "{\"id\":1,\"name\":\"Fullmetal Alchemist: Brotherhood\"}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int encodeAnime() {
+        return release(encoder.encodeValue(anime, bufferFactory, ANIME_TYPE, MediaType.APPLICATION_JSON,
+                Collections.emptyMap()));
+    }
+
+    @Benchmark
+    public int encodeAnimeArray() {
+        return encodeFlux(MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public int encodeAnimeNdjson() {
+        return encodeFlux(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Benchmark
+    public Anime decodeAnime() {
+        return decoder.decodeToMono(Mono.just(bufferFactory.wrap(animeJson)), ANIME_TYPE,
+                MediaType.APPLICATION_JSON, Collections.emptyMap())
+                .cast(Anime.class)
+                .block();
+    }
+
+    private int encodeFlux(MediaType mediaType) {
+        return encoder.encode(Flux.fromIterable(animes), bufferFactory, ANIME_TYPE, mediaType, Collections.emptyMap())
+                .map(AnimeCodecBenchmark::release)
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    private static int release(DataBuffer buffer) {
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+}
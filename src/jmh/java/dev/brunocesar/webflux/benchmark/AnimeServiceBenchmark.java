@@ -0,0 +1,113 @@
+package dev.brunocesar.webflux.benchmark;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.config.ReadYourWrites;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.exception.KnownErrorException;
+import dev.brunocesar.webflux.service.AnimeCache;
+import dev.brunocesar.webflux.service.AnimeChangeFeed;
+import dev.brunocesar.webflux.service.AnimeIdIndex;
+import dev.brunocesar.webflux.service.AnimeLookupBatcher;
+import dev.brunocesar.webflux.service.AnimeService;
+import dev.brunocesar.webflux.service.AnimeSnapshot;
+import dev.brunocesar.webflux.service.AnimeSuggestionIndex;
+import dev.brunocesar.webflux.service.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * AnimeService operations against an in-memory repository, with and without the findById cache and the index
+ * of existing IDs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimeServiceBenchmark {
+
+    private static final int CATALOGUE_SIZE = 1000;
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    @Param({"true", "false"})
+    private boolean idIndexEnabled;
+
+    private AnimeService animeService;
+
+    private AnimeLookupBatcher animeLookupBatcher;
+
+    private List<Anime> batch;
+
+    @Setup
+    public void setup() {
+        var animeProperties = new AnimeProperties();
+        animeProperties.getCache().setEnabled(cacheEnabled);
+        animeProperties.getIdIndex().setEnabled(idIndexEnabled);
+        var animeRepository = new StubAnimeRepository(CATALOGUE_SIZE);
+        var animeIdIndex = new AnimeIdIndex(animeRepository, animeProperties);
+        animeIdIndex.load().block();
+        animeLookupBatcher = new AnimeLookupBatcher(animeRepository, animeProperties);
+        var readYourWrites = new ReadYourWrites(animeProperties);
+        var animeCache = new AnimeCache(animeProperties, readYourWrites);
+        animeService = new AnimeService(animeRepository, animeProperties, animeCache,
+                animeLookupBatcher, new AnimeSuggestionIndex(animeRepository, animeProperties), animeIdIndex,
+                new AnimeSnapshot(animeRepository, animeProperties), new AnimeChangeFeed(animeProperties),
+                readYourWrites, new PipelineMetrics(new SimpleMeterRegistry()));
+        batch = IntStream.range(0, 100)
+                .mapToObj(i -> new Anime(null, "Anime " + i))
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        animeLookupBatcher.dispose();
+    }
+
+    @Benchmark
+    public Anime findById() {
+        return animeService.findById(42).block();
+    }
+
+    @Benchmark
+    public Anime findMissingById() {
+        return animeService.findById(CATALOGUE_SIZE + 42)
+                .onErrorResume(KnownErrorException.class, error -> Mono.empty())
+                .block();
+    }
+
+    @Benchmark
+    public List<Anime> findAll() {
+        return animeService.findAll().collectList().block();
+    }
+
+    @Benchmark
+    public List<Anime> findPage() {
+        return animeService.findPage(500, 100).collectList().block();
+    }
+
+    @Benchmark
+    public List<Anime> saveAll() {
+        return animeService.saveAll(batch).collectList().block();
+    }
+
+}
@@ -0,0 +1,69 @@
+package dev.brunocesar.webflux.benchmark;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.service.AnimeSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in a snapshot loaded with {@code catalogueSize} anime, against a {@code HashMap} with boxed keys holding
+ * the same anime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AnimeSnapshotBenchmark {
+
+    @Param({"1000000"})
+    private int catalogueSize;
+
+    private AnimeSnapshot animeSnapshot;
+
+    private Map<Integer, Anime> hashMap;
+
+    @Setup
+    public void setup() {
+        var animeProperties = new AnimeProperties();
+        animeProperties.getSnapshot().setEnabled(true);
+        var animeRepository = new StubAnimeRepository(catalogueSize);
+        animeSnapshot = new AnimeSnapshot(animeRepository, animeProperties);
+        animeSnapshot.load().block();
+        hashMap = new HashMap<>();
+        animeRepository.findPageAfter(0, catalogueSize).toIterable().forEach(anime -> hashMap.put(anime.getId(), anime));
+    }
+
+    @Benchmark
+    public Anime snapshotGet() {
+        return animeSnapshot.get(ThreadLocalRandom.current().nextInt(1, catalogueSize));
+    }
+
+    @Benchmark
+    public Anime hashMapGet() {
+        return hashMap.get(ThreadLocalRandom.current().nextInt(1, catalogueSize));
+    }
+
+    @Benchmark
+    public void put() {
+        int id = ThreadLocalRandom.current().nextInt(1, catalogueSize);
+        animeSnapshot.put(new Anime(id, "Anime " + id));
+    }
+
+}
@@ -0,0 +1,61 @@
+package dev.brunocesar.webflux.benchmark;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.service.AnimeSuggestionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggestion lookups and writes against an index loaded with {@code catalogueSize} names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AnimeSuggestionBenchmark {
+
+    @Param({"1000000"})
+    private int catalogueSize;
+
+    private AnimeSuggestionIndex animeSuggestionIndex;
+
+    @Setup
+    public void setup() {
+        var animeProperties = new AnimeProperties();
+        animeSuggestionIndex = new AnimeSuggestionIndex(new StubAnimeRepository(catalogueSize), animeProperties);
+        animeSuggestionIndex.load().block();
+    }
+
+    @Benchmark
+    public List<Anime> suggestNarrowPrefix() {
+        return animeSuggestionIndex.suggest("Anime " + ThreadLocalRandom.current().nextInt(1, catalogueSize), 10);
+    }
+
+    @Benchmark
+    public List<Anime> suggestBroadPrefix() {
+        return animeSuggestionIndex.suggest("anime 1", 10);
+    }
+
+    @Benchmark
+    public void put() {
+        int id = ThreadLocalRandom.current().nextInt(1, catalogueSize);
+        animeSuggestionIndex.put(new Anime(id, "Anime " + id));
+    }
+
+}
@@ -0,0 +1,89 @@
+package dev.brunocesar.webflux.benchmark;
+
+import dev.brunocesar.webflux.exception.CustomAttributes;
+import dev.brunocesar.webflux.exception.GlobalExceptionHandler;
+import dev.brunocesar.webflux.exception.KnownErrorException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the 404 returned for a missing anime through GlobalExceptionHandler, once from a freshly created
+ * ResponseStatusException through CustomAttributes and once from the preallocated KnownErrorException that
+ * AnimeService signals. Exchanges share one codec configurer, as they do in the server, so that the
+ * numbers are not dominated by MockServerWebExchange creating one per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorRenderingBenchmark {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    private ServerCodecConfigurer codecConfigurer;
+
+    private DefaultWebSessionManager sessionManager;
+
+    private AcceptHeaderLocaleContextResolver localeContextResolver;
+
+    @Setup
+    public void setup() throws Exception {
+        var applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        // Configured as Spring Boot configures the application's mapper and codecs.
+        var objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        codecConfigurer = ServerCodecConfigurer.create();
+        codecConfigurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+        sessionManager = new DefaultWebSessionManager();
+        localeContextResolver = new AcceptHeaderLocaleContextResolver();
+        globalExceptionHandler = new GlobalExceptionHandler(new CustomAttributes(), new WebProperties.Resources(),
+                applicationContext, codecConfigurer, objectMapper);
+        globalExceptionHandler.afterPropertiesSet();
+    }
+
+    @Benchmark
+    public Object renderResponseStatusException() {
+        return render(new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime not found"));
+    }
+
+    @Benchmark
+    public Object renderKnownError() {
+        return render(KnownErrorException.ANIME_NOT_FOUND);
+    }
+
+    private Object render(Throwable error) {
+        var response = new MockServerHttpResponse();
+        var exchange = new DefaultServerWebExchange(MockServerHttpRequest.get("/animes/42").build(), response,
+                sessionManager, codecConfigurer, localeContextResolver);
+        globalExceptionHandler.handle(exchange, error).block();
+        return response.getBodyAsString().block();
+    }
+
+}
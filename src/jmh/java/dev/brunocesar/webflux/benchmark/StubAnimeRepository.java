@@ -0,0 +1,172 @@
+package dev.brunocesar.webflux.benchmark;
+
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-memory AnimeRepository so that benchmarks measure the service pipeline rather than Postgres.
+ */
+class StubAnimeRepository implements AnimeRepository {
+
+    private final List<Anime> animes = new ArrayList<>();
+
+    StubAnimeRepository(int size) {
+        for (int id = 1; id <= size; id++) {
+            animes.add(new Anime(id, "Anime " + id));
+        }
+    }
+
+    @Override
+    public Mono<Anime> findById(int id) {
+        return id >= 1 && id <= animes.size() ? Mono.just(animes.get(id - 1)) : Mono.empty();
+    }
+
+    @Override
+    public Flux<Anime> findPageAfter(int after, int limit) {
+        int from = Math.min(Math.max(after, 0), animes.size());
+        return Flux.fromIterable(animes.subList(from, Math.min(from + limit, animes.size())));
+    }
+
+    @Override
+    public Flux<Integer> findIdsAfter(int after, int limit) {
+        return findPageAfter(after, limit).map(Anime::getId);
+    }
+
+    @Override
+    public Flux<Anime> search(String query, String term, int limit) {
+        String lowerCaseQuery = query.toLowerCase();
+        return Flux.fromIterable(animes)
+                .filter(anime -> anime.getName().toLowerCase().contains(lowerCaseQuery))
+                .take(limit);
+    }
+
+    @Override
+    public Mono<String> findCatalogueVersion() {
+        return Mono.just(animes.size() + "." + animes.size() + ".0");
+    }
+
+    @Override
+    public Flux<Anime> insertAll(List<Anime> animes) {
+        return Flux.fromIterable(animes)
+                .index()
+                .map(tuple -> new Anime(tuple.getT1().intValue() + 1, tuple.getT2().getName()));
+    }
+
+    @Override
+    public Mono<Integer> bulkInsert(List<Anime> animes) {
+        return Mono.just(animes.size());
+    }
+
+    @Override
+    public Mono<Void> notifyReset() {
+        return Mono.empty();
+    }
+
+    @Override
+    public Flux<Anime> findAllByIdIn(Collection<Integer> ids) {
+        return Flux.fromIterable(ids).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Anime> updateName(int id, String name, Long expectedVersion) {
+        return findById(id).map(anime -> new Anime(id, name, anime.getVersion() == null ? 1L : anime.getVersion() + 1));
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S anime) {
+        return Mono.just(anime);
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> animes) {
+        return Flux.fromIterable(animes);
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> animes) {
+        return Flux.from(animes);
+    }
+
+    @Override
+    public Mono<Anime> findById(Integer id) {
+        return findById(id.intValue());
+    }
+
+    @Override
+    public Mono<Anime> findById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        return findById(id.intValue()).hasElement();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Flux<Anime> findAll() {
+        return Flux.fromIterable(animes);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Iterable<Integer> ids) {
+        return Flux.fromIterable(ids).flatMap(this::findById);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Publisher<Integer> ids) {
+        return Flux.from(ids).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.just((long) animes.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> delete(Anime anime) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Integer> ids) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Anime> animes) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Anime> animes) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.empty();
+    }
+
+}
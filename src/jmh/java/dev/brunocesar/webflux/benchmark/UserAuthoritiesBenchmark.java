@@ -0,0 +1,96 @@
+package dev.brunocesar.webflux.benchmark;
+
+import dev.brunocesar.webflux.domain.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityReactiveAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The authority work of an authorised request, on the path Spring Security takes: the authentication manager
+ * builds the token from {@code getAuthorities()}, then the {@code hasRole} rule in SecurityConfig and the
+ * {@code @PreAuthorize} expression each check the token's authorities.
+ * {@code splitPerCall} reproduces the previous implementation that re-parsed the column on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    private static final String AUTHORITIES = "ROLE_ADMIN,ROLE_USER";
+
+    private static final ReactiveAuthorizationManager<Object> HAS_ROLE_ADMIN =
+            AuthorityReactiveAuthorizationManager.hasRole("ADMIN");
+
+    private User user;
+
+    private User splitPerCallUser;
+
+    @Setup
+    public void setup() {
+        user = user(new User());
+        splitPerCallUser = user(new User() {
+            @Override
+            public Collection<? extends GrantedAuthority> getAuthorities() {
+                return splitAuthorities();
+            }
+        });
+    }
+
+    @Benchmark
+    public boolean splitPerCall() {
+        return authorise(splitPerCallUser);
+    }
+
+    @Benchmark
+    public boolean precomputed() {
+        return authorise(user);
+    }
+
+    private static boolean authorise(UserDetails userDetails) {
+        var authentication = new UsernamePasswordAuthenticationToken(userDetails, userDetails.getPassword(),
+                userDetails.getAuthorities());
+        AuthorizationDecision decision = HAS_ROLE_ADMIN.check(Mono.just(authentication), null).block();
+        return decision != null && decision.isGranted()
+                && new SecurityExpressionRoot(authentication) {
+                }.hasRole("ADMIN");
+    }
+
+    private static User user(User user) {
+        user.setUsername("admin");
+        user.setPassword("{noop}admin");
+        user.setAuthorities(AUTHORITIES);
+        return user;
+    }
+
+    private static List<SimpleGrantedAuthority> splitAuthorities() {
+        return Arrays.stream(AUTHORITIES.split(","))
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,49 @@
+package dev.brunocesar.webflux.config;
+
+import dev.brunocesar.webflux.service.AnimeIdIndex;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Starts loading the {@link AnimeIdIndex} once the application is up and reloads it every
+ * {@code anime.id-index.refresh-interval}. Every ID is looked up in the database until the first load completes,
+ * and always while cache invalidation is disabled.
+ */
+@Component
+public class AnimeIdIndexLoader implements ApplicationRunner, DisposableBean {
+
+    private final AnimeIdIndex animeIdIndex;
+
+    private final AnimeProperties animeProperties;
+
+    private volatile Disposable refreshes;
+
+    public AnimeIdIndexLoader(AnimeIdIndex animeIdIndex, AnimeProperties animeProperties) {
+        this.animeIdIndex = animeIdIndex;
+        this.animeProperties = animeProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AnimeProperties.IdIndex properties = animeProperties.getIdIndex();
+        if (!properties.isEnabled() || !properties.isLoadOnStartup()
+                || !animeProperties.getInvalidation().isEnabled()) {
+            return;
+        }
+        animeIdIndex.refresh();
+        refreshes = Flux.interval(properties.getRefreshInterval())
+                .subscribe(tick -> animeIdIndex.refresh());
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshes != null) {
+            refreshes.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,743 @@
+package dev.brunocesar.webflux.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.core.publisher.BufferOverflowStrategy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "anime")
+public class AnimeProperties {
+
+    private final Listing listing = new Listing();
+
+    private final Batch batch = new Batch();
+
+    private final Cache cache = new Cache();
+
+    private final Lookup lookup = new Lookup();
+
+    private final Security security = new Security();
+
+    private final Pool pool = new Pool();
+
+    private final Routing routing = new Routing();
+
+    private final QueryLog queryLog = new QueryLog();
+
+    private final Search search = new Search();
+
+    private final Suggest suggest = new Suggest();
+
+    private final Http http = new Http();
+
+    private final IdIndex idIndex = new IdIndex();
+
+    private final Snapshot snapshot = new Snapshot();
+
+    private final Invalidation invalidation = new Invalidation();
+
+    private final Changes changes = new Changes();
+
+    public Listing getListing() {
+        return listing;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Lookup getLookup() {
+        return lookup;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public QueryLog getQueryLog() {
+        return queryLog;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public IdIndex getIdIndex() {
+        return idIndex;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Invalidation getInvalidation() {
+        return invalidation;
+    }
+
+    public Changes getChanges() {
+        return changes;
+    }
+
+    public static class Listing {
+
+        private int pageSize = 500;
+
+        private int maxLimit = 1000;
+
+        private int flushBatchSize = 1;
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public int getFlushBatchSize() {
+            return flushBatchSize;
+        }
+
+        public void setFlushBatchSize(int flushBatchSize) {
+            this.flushBatchSize = flushBatchSize;
+        }
+
+    }
+
+    public static class Batch {
+
+        private int chunkSize = 500;
+
+        private int bulkChunkSize = 10000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getBulkChunkSize() {
+            return bulkChunkSize;
+        }
+
+        public void setBulkChunkSize(int bulkChunkSize) {
+            this.bulkChunkSize = bulkChunkSize;
+        }
+
+    }
+
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        private long maximumSize = 10000;
+
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+    }
+
+    public static class Lookup {
+
+        private boolean batchingEnabled = false;
+
+        private Duration batchWindow = Duration.ofMillis(2);
+
+        private int maxBatchSize = 100;
+
+        private int maxConcurrentBatches = 4;
+
+        private int maxPending = 10000;
+
+        private Duration timeout = Duration.ofSeconds(5);
+
+        public boolean isBatchingEnabled() {
+            return batchingEnabled;
+        }
+
+        public void setBatchingEnabled(boolean batchingEnabled) {
+            this.batchingEnabled = batchingEnabled;
+        }
+
+        public Duration getBatchWindow() {
+            return batchWindow;
+        }
+
+        public void setBatchWindow(Duration batchWindow) {
+            this.batchWindow = batchWindow;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getMaxConcurrentBatches() {
+            return maxConcurrentBatches;
+        }
+
+        public void setMaxConcurrentBatches(int maxConcurrentBatches) {
+            this.maxConcurrentBatches = maxConcurrentBatches;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+    }
+
+    public static class Security {
+
+        private final CredentialsCache credentialsCache = new CredentialsCache();
+
+        private final Token token = new Token();
+
+        public CredentialsCache getCredentialsCache() {
+            return credentialsCache;
+        }
+
+        public Token getToken() {
+            return token;
+        }
+
+        public static class CredentialsCache {
+
+            private boolean enabled = true;
+
+            private long maximumSize = 10000;
+
+            private Duration ttl = Duration.ofMinutes(5);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMaximumSize() {
+                return maximumSize;
+            }
+
+            public void setMaximumSize(long maximumSize) {
+                this.maximumSize = maximumSize;
+            }
+
+            public Duration getTtl() {
+                return ttl;
+            }
+
+            public void setTtl(Duration ttl) {
+                this.ttl = ttl;
+            }
+
+        }
+
+        public static class Token {
+
+            private boolean enabled = false;
+
+            private Duration ttl = Duration.ofMinutes(15);
+
+            private String secret;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getTtl() {
+                return ttl;
+            }
+
+            public void setTtl(Duration ttl) {
+                this.ttl = ttl;
+            }
+
+            public String getSecret() {
+                return secret;
+            }
+
+            public void setSecret(String secret) {
+                this.secret = secret;
+            }
+
+        }
+
+    }
+
+    public static class Pool {
+
+        private boolean warmUp = true;
+
+        private Duration warmUpTimeout = Duration.ofSeconds(10);
+
+        public boolean isWarmUp() {
+            return warmUp;
+        }
+
+        public void setWarmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+        }
+
+        public Duration getWarmUpTimeout() {
+            return warmUpTimeout;
+        }
+
+        public void setWarmUpTimeout(Duration warmUpTimeout) {
+            this.warmUpTimeout = warmUpTimeout;
+        }
+
+    }
+
+    public static class Routing {
+
+        private boolean enabled = false;
+
+        private List<String> replicaUrls = new ArrayList<>();
+
+        private ReplicaConnectionFactory.Balancing balancing = ReplicaConnectionFactory.Balancing.ROUND_ROBIN;
+
+        private Duration readYourWritesWindow = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getReplicaUrls() {
+            return replicaUrls;
+        }
+
+        public void setReplicaUrls(List<String> replicaUrls) {
+            this.replicaUrls = replicaUrls;
+        }
+
+        public ReplicaConnectionFactory.Balancing getBalancing() {
+            return balancing;
+        }
+
+        public void setBalancing(ReplicaConnectionFactory.Balancing balancing) {
+            this.balancing = balancing;
+        }
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+
+    }
+
+    public static class QueryLog {
+
+        private boolean enabled = true;
+
+        private Duration slowThreshold = Duration.ofMillis(200);
+
+        private int sampleRate = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+    }
+
+    public static class Search {
+
+        private int minQueryLength = 3;
+
+        private int defaultLimit = 20;
+
+        private int maxLimit = 100;
+
+        public int getMinQueryLength() {
+            return minQueryLength;
+        }
+
+        public void setMinQueryLength(int minQueryLength) {
+            this.minQueryLength = minQueryLength;
+        }
+
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+    }
+
+    public static class Suggest {
+
+        private boolean loadOnStartup = true;
+
+        private int defaultLimit = 10;
+
+        private int maxLimit = 50;
+
+        private int compactionThreshold = 1024;
+
+        public boolean isLoadOnStartup() {
+            return loadOnStartup;
+        }
+
+        public void setLoadOnStartup(boolean loadOnStartup) {
+            this.loadOnStartup = loadOnStartup;
+        }
+
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public int getCompactionThreshold() {
+            return compactionThreshold;
+        }
+
+        public void setCompactionThreshold(int compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+        }
+
+    }
+
+    public static class Http {
+
+        private Duration maxAge = Duration.ZERO;
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+    }
+
+    public static class IdIndex {
+
+        private boolean enabled = true;
+
+        private boolean loadOnStartup = true;
+
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        private int pageSize = 10000;
+
+        private int maxId = 16_777_216;
+
+        private Duration negativeTtl = Duration.ofSeconds(5);
+
+        private long negativeMaximumSize = 100000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isLoadOnStartup() {
+            return loadOnStartup;
+        }
+
+        public void setLoadOnStartup(boolean loadOnStartup) {
+            this.loadOnStartup = loadOnStartup;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getMaxId() {
+            return maxId;
+        }
+
+        public void setMaxId(int maxId) {
+            this.maxId = maxId;
+        }
+
+        public Duration getNegativeTtl() {
+            return negativeTtl;
+        }
+
+        public void setNegativeTtl(Duration negativeTtl) {
+            this.negativeTtl = negativeTtl;
+        }
+
+        public long getNegativeMaximumSize() {
+            return negativeMaximumSize;
+        }
+
+        public void setNegativeMaximumSize(long negativeMaximumSize) {
+            this.negativeMaximumSize = negativeMaximumSize;
+        }
+
+    }
+
+    public static class Snapshot {
+
+        private boolean enabled = false;
+
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        private int pageSize = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+    }
+
+    public static class Invalidation {
+
+        private boolean enabled = true;
+
+        private Duration minBackoff = Duration.ofSeconds(1);
+
+        private Duration maxBackoff = Duration.ofSeconds(30);
+
+        private int notifyMaxRows = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getMinBackoff() {
+            return minBackoff;
+        }
+
+        public void setMinBackoff(Duration minBackoff) {
+            this.minBackoff = minBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public int getNotifyMaxRows() {
+            return notifyMaxRows;
+        }
+
+        public void setNotifyMaxRows(int notifyMaxRows) {
+            this.notifyMaxRows = notifyMaxRows;
+        }
+
+    }
+
+    public static class Changes {
+
+        private int replaySize = 1024;
+
+        private int bufferSize = 256;
+
+        private BufferOverflowStrategy overflow = BufferOverflowStrategy.DROP_OLDEST;
+
+        private int prefetch = 32;
+
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        public int getReplaySize() {
+            return replaySize;
+        }
+
+        public void setReplaySize(int replaySize) {
+            this.replaySize = replaySize;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public BufferOverflowStrategy getOverflow() {
+            return overflow;
+        }
+
+        public void setOverflow(BufferOverflowStrategy overflow) {
+            this.overflow = overflow;
+        }
+
+        public int getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(int prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package dev.brunocesar.webflux.config;
+
+import dev.brunocesar.webflux.service.AnimeSnapshot;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Starts loading the {@link AnimeSnapshot} once the application is up when snapshot mode is enabled, and reloads
+ * it every {@code anime.snapshot.refresh-interval}. Reads go to the database until the first load completes.
+ */
+@Component
+public class AnimeSnapshotLoader implements ApplicationRunner, DisposableBean {
+
+    private final AnimeSnapshot animeSnapshot;
+
+    private final AnimeProperties animeProperties;
+
+    private volatile Disposable refreshes;
+
+    public AnimeSnapshotLoader(AnimeSnapshot animeSnapshot, AnimeProperties animeProperties) {
+        this.animeSnapshot = animeSnapshot;
+        this.animeProperties = animeProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AnimeProperties.Snapshot properties = animeProperties.getSnapshot();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        animeSnapshot.refresh();
+        refreshes = Flux.interval(properties.getRefreshInterval())
+                .subscribe(tick -> animeSnapshot.refresh());
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshes != null) {
+            refreshes.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package dev.brunocesar.webflux.config;
+
+import dev.brunocesar.webflux.service.AnimeSuggestionIndex;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts loading the {@link AnimeSuggestionIndex} once the application is up. The load runs in the background;
+ * suggestions come only from writes made since startup until it completes.
+ */
+@Component
+public class AnimeSuggestionIndexLoader implements ApplicationRunner {
+
+    private final AnimeSuggestionIndex animeSuggestionIndex;
+
+    private final AnimeProperties animeProperties;
+
+    public AnimeSuggestionIndexLoader(AnimeSuggestionIndex animeSuggestionIndex, AnimeProperties animeProperties) {
+        this.animeSuggestionIndex = animeSuggestionIndex;
+        this.animeProperties = animeProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (animeProperties.getSuggest().isLoadOnStartup()) {
+            animeSuggestionIndex.refresh();
+        }
+    }
+
+}
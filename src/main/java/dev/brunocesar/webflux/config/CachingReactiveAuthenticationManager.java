@@ -0,0 +1,31 @@
+package dev.brunocesar.webflux.config;
+
+import dev.brunocesar.webflux.service.UserCredentialsCache;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+public class CachingReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final ReactiveAuthenticationManager delegate;
+
+    private final UserCredentialsCache userCredentialsCache;
+
+    public CachingReactiveAuthenticationManager(ReactiveAuthenticationManager delegate,
+                                                UserCredentialsCache userCredentialsCache) {
+        this.delegate = delegate;
+        this.userCredentialsCache = userCredentialsCache;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken) || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        return userCredentialsCache.getAuthentication(authentication.getName(),
+                authentication.getCredentials().toString(),
+                username -> delegate.authenticate(authentication));
+    }
+
+}
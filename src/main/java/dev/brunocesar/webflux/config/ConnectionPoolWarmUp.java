@@ -0,0 +1,60 @@
+package dev.brunocesar.webflux.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Opens the initial connections of every R2DBC pool, including the primary and replica pools behind a
+ * {@link RoutingConnectionFactory}, at startup so that the first requests do not pay for
+ * connection establishment. A database that is not reachable yet is logged and left to the pool to retry.
+ */
+@Component
+public class ConnectionPoolWarmUp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolWarmUp.class);
+
+    private final ObjectProvider<ConnectionFactory> connectionFactories;
+
+    private final AnimeProperties animeProperties;
+
+    public ConnectionPoolWarmUp(ObjectProvider<ConnectionFactory> connectionFactories,
+                                AnimeProperties animeProperties) {
+        this.connectionFactories = connectionFactories;
+        this.animeProperties = animeProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AnimeProperties.Pool properties = animeProperties.getPool();
+        if (!properties.isWarmUp()) {
+            return;
+        }
+        connectionFactories.orderedStream().flatMap(ConnectionPoolWarmUp::connectionPools).forEach(connectionPool -> {
+            try {
+                Integer connections = connectionPool.warmup().block(properties.getWarmUpTimeout());
+                log.info("Warmed up R2DBC connection pool with {} connections", connections);
+            } catch (RuntimeException e) {
+                log.warn("Could not warm up R2DBC connection pool: {}", e.getMessage());
+            }
+        });
+    }
+
+    private static Stream<ConnectionPool> connectionPools(ConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof ConnectionPool) {
+            return Stream.of((ConnectionPool) connectionFactory);
+        }
+        if (connectionFactory instanceof RoutingConnectionFactory) {
+            return ((RoutingConnectionFactory) connectionFactory).getConnectionPools().values().stream();
+        }
+        return Stream.empty();
+    }
+
+}
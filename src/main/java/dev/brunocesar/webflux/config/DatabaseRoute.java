@@ -0,0 +1,26 @@
+package dev.brunocesar.webflux.config;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Marks a query as read-only in the Reactor context so that {@link RoutingConnectionFactory} may serve it
+ * from a read replica. Unmarked queries always go to the primary.
+ * <pre>{@code animeRepository.findById(id).contextWrite(DatabaseRoute::readOnly)}</pre>
+ */
+public final class DatabaseRoute {
+
+    private static final Object READ_ONLY_KEY = DatabaseRoute.class.getName() + ".READ_ONLY";
+
+    private DatabaseRoute() {
+    }
+
+    public static Context readOnly(Context context) {
+        return context.put(READ_ONLY_KEY, Boolean.TRUE);
+    }
+
+    public static boolean isReadOnly(ContextView context) {
+        return context.hasKey(READ_ONLY_KEY);
+    }
+
+}
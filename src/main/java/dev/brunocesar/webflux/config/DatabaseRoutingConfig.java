@@ -0,0 +1,82 @@
+package dev.brunocesar.webflux.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces the auto-configured connection pool with a primary pool from {@code spring.r2dbc.*} and one pool per
+ * {@code anime.routing.replica-urls} entry, all sized by {@code spring.r2dbc.pool.*} and customized like the
+ * auto-configured one. Replicas use the primary credentials unless their URL carries its own.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "anime.routing", name = "enabled", havingValue = "true")
+public class DatabaseRoutingConfig {
+
+    @Bean
+    RoutingConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties, AnimeProperties animeProperties,
+                                               ReadYourWrites readYourWrites,
+                                               ObjectProvider<ConnectionFactoryOptionsBuilderCustomizer> customizers) {
+        AnimeProperties.Routing routing = animeProperties.getRouting();
+        List<ConnectionFactoryOptionsBuilderCustomizer> optionsCustomizers =
+                customizers.orderedStream().collect(Collectors.toList());
+        var primary = connectionPool("primary", r2dbcProperties.getUrl(), r2dbcProperties, optionsCustomizers);
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (int i = 0; i < routing.getReplicaUrls().size(); i++) {
+            replicas.add(connectionPool("replica-" + i, routing.getReplicaUrls().get(i), r2dbcProperties,
+                    optionsCustomizers));
+        }
+        return new RoutingConnectionFactory(primary, new ReplicaConnectionFactory(replicas, routing.getBalancing()),
+                readYourWrites);
+    }
+
+    @Bean
+    MeterBinder routingConnectionPoolMetrics(RoutingConnectionFactory connectionFactory) {
+        return registry -> connectionFactory.getConnectionPools().forEach((name, connectionPool) ->
+                new ConnectionPoolMetrics(connectionPool, name, Tags.empty()).bindTo(registry));
+    }
+
+    private static ConnectionPool connectionPool(String name, String url, R2dbcProperties properties,
+                                                 List<ConnectionFactoryOptionsBuilderCustomizer> customizers) {
+        var connectionFactory = ConnectionFactoryBuilder.withUrl(url);
+        var options = ConnectionFactoryOptions.parse(url);
+        var map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        if (!options.hasOption(ConnectionFactoryOptions.USER)) {
+            map.from(properties.getUsername()).to(connectionFactory::username);
+            map.from(properties.getPassword()).to(connectionFactory::password);
+        }
+        connectionFactory.configure(builder -> customizers.forEach(customizer -> customizer.customize(builder)));
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        var configuration = ConnectionPoolConfiguration.builder(connectionFactory.build())
+                .name(name)
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .validationDepth(pool.getValidationDepth());
+        map.from(pool.getMaxIdleTime()).to(configuration::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(configuration::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(configuration::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(configuration::maxCreateConnectionTime);
+        if (StringUtils.hasText(pool.getValidationQuery())) {
+            configuration.validationQuery(pool.getValidationQuery());
+        }
+        return new ConnectionPool(configuration.build());
+    }
+
+}
@@ -0,0 +1,37 @@
+package dev.brunocesar.webflux.config;
+
+import io.r2dbc.proxy.ProxyConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Puts an r2dbc-proxy in front of the database driver, inside the connection pool, so that every query is
+ * timed and handed to the {@link SampledQueryLogger}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "anime.query-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryLogConfig {
+
+    @Bean
+    SampledQueryLogger sampledQueryLogger(AnimeProperties animeProperties) {
+        AnimeProperties.QueryLog properties = animeProperties.getQueryLog();
+        return new SampledQueryLogger(properties.getSlowThreshold(), properties.getSampleRate());
+    }
+
+    @Bean
+    ConnectionFactoryOptionsBuilderCustomizer queryLogConnectionFactoryOptionsCustomizer(
+            SampledQueryLogger sampledQueryLogger) {
+        return builder -> {
+            ConnectionFactoryOptions options = builder.build();
+            String driver = options.getRequiredValue(ConnectionFactoryOptions.DRIVER);
+            String protocol = options.getValue(ConnectionFactoryOptions.PROTOCOL);
+            builder.option(ConnectionFactoryOptions.DRIVER, ProxyConnectionFactoryProvider.PROXY_DRIVER)
+                    .option(ConnectionFactoryOptions.PROTOCOL, protocol == null ? driver : driver + ":" + protocol)
+                    .option(ProxyConnectionFactoryProvider.PROXY_LISTENERS, sampledQueryLogger);
+        };
+    }
+
+}
@@ -0,0 +1,92 @@
+package dev.brunocesar.webflux.config;
+
+import dev.brunocesar.webflux.service.PipelineMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every reactive Spring Data repository method as {@code anime.repository} and every connection
+ * acquired from an R2DBC connection factory as {@code r2dbc.pool.acquire}.
+ */
+@Component
+public class ReactiveMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final String REPOSITORY_METRIC = "anime.repository";
+
+    private static final String POOL_ACQUIRE_METRIC = "r2dbc.pool.acquire";
+
+    private final ObjectProvider<PipelineMetrics> pipelineMetrics;
+
+    public ReactiveMetricsPostProcessor(ObjectProvider<PipelineMetrics> pipelineMetrics) {
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised) {
+            Advised repository = (Advised) bean;
+            String repositoryName = repository.getProxiedInterfaces()[0].getSimpleName();
+            repository.addAdvice(0, new TimingInterceptor(REPOSITORY_METRIC, "repository", repositoryName));
+            return bean;
+        }
+        if (bean instanceof ConnectionFactory) {
+            // Class-based proxy where possible so that a ConnectionPool is still one for the pool gauges.
+            var proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(!Modifier.isFinal(bean.getClass().getModifiers()));
+            var advisor = new NameMatchMethodPointcutAdvisor(
+                    new TimingInterceptor(POOL_ACQUIRE_METRIC, "pool", beanName));
+            advisor.setMappedName("create");
+            proxyFactory.addAdvisor(advisor);
+            return proxyFactory.getProxy();
+        }
+        return bean;
+    }
+
+    private final class TimingInterceptor implements MethodInterceptor {
+
+        private final String metric;
+
+        private final String[] tags;
+
+        private final Map<Method, PipelineMetrics.Stage> stages = new ConcurrentHashMap<>();
+
+        private TimingInterceptor(String metric, String... tags) {
+            this.metric = metric;
+            this.tags = tags;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            if (result instanceof Mono) {
+                return stage(invocation.getMethod()).time((Mono<?>) result);
+            }
+            if (result instanceof Flux) {
+                return stage(invocation.getMethod()).time((Flux<?>) result);
+            }
+            return result;
+        }
+
+        private PipelineMetrics.Stage stage(Method method) {
+            return stages.computeIfAbsent(method,
+                    key -> pipelineMetrics.getObject().stage(metric, key.getName(), tags));
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package dev.brunocesar.webflux.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Remembers the principals that wrote to the primary within the last {@code anime.routing.read-your-writes-window},
+ * so that {@link RoutingConnectionFactory} sends their reads to the primary too and callers that share reads
+ * between requests know when a replica may not have caught up yet. Writes outside of an authenticated request
+ * are not tracked. Does nothing unless routing is enabled.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final int RECENT_WRITERS_MAXIMUM_SIZE = 100_000;
+
+    private static final Mono<Boolean> NOT_RECENT = Mono.just(Boolean.FALSE);
+
+    private final long windowNanos;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    private volatile long lastWriteNanos;
+
+    public ReadYourWrites(AnimeProperties animeProperties) {
+        AnimeProperties.Routing routing = animeProperties.getRouting();
+        Duration window = routing.isEnabled() ? routing.getReadYourWritesWindow() : Duration.ZERO;
+        this.windowNanos = window.isNegative() ? 0 : window.toNanos();
+        this.recentWriters = windowNanos == 0 ? null
+                : Caffeine.newBuilder()
+                        .expireAfterWrite(window)
+                        .maximumSize(RECENT_WRITERS_MAXIMUM_SIZE)
+                        .build();
+        this.lastWriteNanos = System.nanoTime() - windowNanos;
+    }
+
+    public boolean isEnabled() {
+        return recentWriters != null;
+    }
+
+    /**
+     * Whether any principal wrote within the window, in which case a read from a replica may miss that write.
+     */
+    public boolean hasRecentWrites() {
+        return recentWriters != null && System.nanoTime() - lastWriteNanos < windowNanos;
+    }
+
+    /**
+     * Whether the principal of the current request wrote within the window.
+     */
+    public Mono<Boolean> isRecentWriter() {
+        if (!hasRecentWrites()) {
+            return NOT_RECENT;
+        }
+        return principalName()
+                .map(name -> recentWriters.getIfPresent(name) != null)
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    /**
+     * Opens the window for the principal of the current request, if any.
+     */
+    public Mono<Void> recordWrite() {
+        if (recentWriters == null) {
+            return Mono.empty();
+        }
+        return principalName()
+                .doOnNext(name -> {
+                    lastWriteNanos = System.nanoTime();
+                    recentWriters.put(name, Boolean.TRUE);
+                })
+                .then();
+    }
+
+    private static Mono<String> principalName() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(Authentication::isAuthenticated)
+                .map(Authentication::getName);
+    }
+
+}
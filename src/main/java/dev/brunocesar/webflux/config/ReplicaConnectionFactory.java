@@ -0,0 +1,83 @@
+package dev.brunocesar.webflux.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads connection acquisition across the read replica pools, either round-robin or to the pool with the
+ * fewest pending acquisitions (then the fewest connections in use). Ties go round-robin.
+ */
+public class ReplicaConnectionFactory implements ConnectionFactory {
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_PENDING
+    }
+
+    private final List<ConnectionPool> replicas;
+
+    private final Balancing balancing;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaConnectionFactory(List<ConnectionPool> replicas, Balancing balancing) {
+        Assert.notEmpty(replicas, "At least one replica is required");
+        this.replicas = List.copyOf(replicas);
+        this.balancing = balancing;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> select().create());
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return replicas.get(0).getMetadata();
+    }
+
+    public List<ConnectionPool> getReplicas() {
+        return replicas;
+    }
+
+    ConnectionPool select() {
+        int size = replicas.size();
+        if (size == 1) {
+            return replicas.get(0);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        if (balancing == Balancing.ROUND_ROBIN) {
+            return replicas.get(start);
+        }
+        ConnectionPool selected = null;
+        long selectedLoad = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            ConnectionPool replica = replicas.get((start + i) % size);
+            long load = load(replica);
+            if (load < selectedLoad) {
+                selected = replica;
+                selectedLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    private static long load(ConnectionPool replica) {
+        Optional<PoolMetrics> metrics = replica.getMetrics();
+        if (metrics.isEmpty()) {
+            return 0;
+        }
+        PoolMetrics poolMetrics = metrics.get();
+        return ((long) poolMetrics.pendingAcquireSize() << 32) | poolMetrics.acquiredSize();
+    }
+
+}
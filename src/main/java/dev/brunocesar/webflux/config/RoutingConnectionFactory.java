@@ -0,0 +1,76 @@
+package dev.brunocesar.webflux.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends queries marked with {@link DatabaseRoute#readOnly} to the replicas and everything else to the primary.
+ * <p>
+ * Read-your-writes: once an authenticated request acquires a primary connection, read-only queries of requests
+ * by the same principal also go to the primary for {@code readYourWritesWindow}, counted from the start of the
+ * latest write, so that a read right after a write does not see a replica that has not caught up yet. Other
+ * principals keep reading from the replicas. Queries outside of a request, such as health checks and batched
+ * lookups, neither open the window nor see it. The window is tracked by {@link ReadYourWrites}.
+ */
+public class RoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    private static final String REPLICA = "replica";
+
+    private static final Mono<Object> PRIMARY_KEY = Mono.just(PRIMARY);
+
+    private static final Mono<Object> REPLICA_KEY = Mono.just(REPLICA);
+
+    private final ConnectionPool primary;
+
+    private final ReplicaConnectionFactory replicas;
+
+    private final ReadYourWrites readYourWrites;
+
+    public RoutingConnectionFactory(ConnectionPool primary, ReplicaConnectionFactory replicas,
+                                    ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+        setTargetConnectionFactories(Map.of(PRIMARY, primary, REPLICA, replicas));
+        setDefaultTargetConnectionFactory(primary);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            if (DatabaseRoute.isReadOnly(context)) {
+                if (!readYourWrites.hasRecentWrites()) {
+                    return REPLICA_KEY;
+                }
+                return readYourWrites.isRecentWriter()
+                        .<Object>map(recentWriter -> recentWriter ? PRIMARY : REPLICA);
+            }
+            if (!readYourWrites.isEnabled()) {
+                return PRIMARY_KEY;
+            }
+            return readYourWrites.recordWrite().then(PRIMARY_KEY);
+        });
+    }
+
+    public Map<String, ConnectionPool> getConnectionPools() {
+        Map<String, ConnectionPool> connectionPools = new LinkedHashMap<>();
+        connectionPools.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.getReplicas().size(); i++) {
+            connectionPools.put(REPLICA + "-" + i, replicas.getReplicas().get(i));
+        }
+        return connectionPools;
+    }
+
+    @Override
+    public void destroy() {
+        getConnectionPools().values().forEach(ConnectionPool::dispose);
+    }
+
+}
@@ -0,0 +1,59 @@
+package dev.brunocesar.webflux.config;
+
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs every query slower than the threshold and one in {@code sampleRate} of the others. Nothing is formatted
+ * for queries that are not logged; the {@value #LOGGER_NAME} logger is written through an asynchronous
+ * appender (logback-spring.xml) so that logging does not block the event loop on I/O.
+ */
+public class SampledQueryLogger implements ProxyExecutionListener {
+
+    static final String LOGGER_NAME = "dev.brunocesar.webflux.query";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final long slowThresholdNanos;
+
+    private final int sampleRate;
+
+    public SampledQueryLogger(Duration slowThreshold, int sampleRate) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        long nanos = execInfo.getExecuteDuration().toNanos();
+        if (nanos >= slowThresholdNanos) {
+            if (log.isWarnEnabled()) {
+                log.warn("Slow query took {} ms (success={}): {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                        execInfo.isSuccess(), queries(execInfo.getQueries()));
+            }
+        } else if (isSampled() && log.isInfoEnabled()) {
+            log.info("Sampled query took {} ms (success={}): {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    execInfo.isSuccess(), queries(execInfo.getQueries()));
+        }
+    }
+
+    private boolean isSampled() {
+        return sampleRate == 1 || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    private static String queries(List<QueryInfo> queries) {
+        return queries.size() == 1
+                ? queries.get(0).getQuery()
+                : queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+    }
+
+}
@@ -1,12 +1,16 @@
 package dev.brunocesar.webflux.config;
 
 import dev.brunocesar.webflux.service.AnimeUserDetailsService;
+import dev.brunocesar.webflux.service.PipelineMetrics;
+import dev.brunocesar.webflux.service.TokenService;
+import dev.brunocesar.webflux.service.UserCredentialsCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 
@@ -14,18 +18,27 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
 @EnableReactiveMethodSecurity
 public class SecurityConfig {
 
+    private static final String SECURITY_METRIC = "anime.security.authentication";
+
     private static final String[] PUBLIC_MATCHERS;
 
     static {
-        PUBLIC_MATCHERS = new String[]{"/webjars/**", "/v3/api-docs/**", "/swagger-ui.html"};
+        PUBLIC_MATCHERS = new String[]{"/webjars/**", "/v3/api-docs/**", "/swagger-ui.html", "/actuator/health"};
     }
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, TokenService tokenService,
+                                                         PipelineMetrics pipelineMetrics) {
+        if (tokenService.isEnabled()) {
+            http.addFilterAt(new TokenAuthenticationWebFilter(tokenService,
+                            pipelineMetrics.stage(SECURITY_METRIC, "authenticate", "scheme", "bearer")),
+                    SecurityWebFiltersOrder.AUTHENTICATION);
+        }
         return http
                 .csrf().disable()
                 .authorizeExchange()
                 .pathMatchers(PUBLIC_MATCHERS).permitAll()
+                .pathMatchers("/actuator/**").hasRole("ADMIN")
                 .pathMatchers(HttpMethod.POST, "/animes/**").hasRole("ADMIN")
                 .pathMatchers(HttpMethod.DELETE, "/animes/**").hasRole("ADMIN")
                 .pathMatchers(HttpMethod.PUT, "/animes/**").hasRole("ADMIN")
@@ -37,8 +50,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    ReactiveAuthenticationManager authenticationManager(AnimeUserDetailsService animeUserDetailsService) {
-        return new UserDetailsRepositoryReactiveAuthenticationManager(animeUserDetailsService);
+    ReactiveAuthenticationManager authenticationManager(AnimeUserDetailsService animeUserDetailsService,
+                                                        UserCredentialsCache userCredentialsCache,
+                                                        PipelineMetrics pipelineMetrics) {
+        var authenticationManager = new CachingReactiveAuthenticationManager(
+                new UserDetailsRepositoryReactiveAuthenticationManager(animeUserDetailsService), userCredentialsCache);
+        var authenticateStage = pipelineMetrics.stage(SECURITY_METRIC, "authenticate", "scheme", "basic");
+        return authentication -> authenticateStage.time(authenticationManager.authenticate(authentication));
     }
 
 }
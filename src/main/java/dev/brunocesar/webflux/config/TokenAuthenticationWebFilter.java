@@ -0,0 +1,32 @@
+package dev.brunocesar.webflux.config;
+
+import dev.brunocesar.webflux.service.PipelineMetrics;
+import dev.brunocesar.webflux.service.TokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+public class TokenAuthenticationWebFilter extends AuthenticationWebFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    public TokenAuthenticationWebFilter(TokenService tokenService, PipelineMetrics.Stage authenticateStage) {
+        super((ReactiveAuthenticationManager) authentication ->
+                authenticateStage.time(tokenService.verify((String) authentication.getCredentials())));
+        setServerAuthenticationConverter(TokenAuthenticationWebFilter::convert);
+    }
+
+    private static Mono<Authentication> convert(ServerWebExchange exchange) {
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return Mono.empty();
+        }
+        String token = authorization.substring(BEARER_PREFIX.length());
+        return Mono.just(new UsernamePasswordAuthenticationToken(token, token));
+    }
+
+}
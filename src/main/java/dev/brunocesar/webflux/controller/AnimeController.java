@@ -1,20 +1,38 @@
 package dev.brunocesar.webflux.controller;
 
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.brunocesar.webflux.config.AnimeProperties;
 import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeCacheStats;
+import dev.brunocesar.webflux.domain.AnimeChange;
+import dev.brunocesar.webflux.domain.AnimeImportSummary;
+import dev.brunocesar.webflux.service.AnimeCache;
+import dev.brunocesar.webflux.service.AnimeChangeFeed;
 import dev.brunocesar.webflux.service.AnimeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("animes")
@@ -25,29 +43,131 @@ import java.util.List;
 )
 public class AnimeController {
 
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
     private final AnimeService animeService;
 
-    public AnimeController(AnimeService animeService) {
+    private final AnimeCache animeCache;
+
+    private final AnimeChangeFeed animeChangeFeed;
+
+    private final AnimeProperties animeProperties;
+
+    private final ObjectMapper objectMapper;
+
+    public AnimeController(AnimeService animeService, AnimeCache animeCache, AnimeChangeFeed animeChangeFeed,
+                           AnimeProperties animeProperties, ObjectMapper objectMapper) {
         this.animeService = animeService;
+        this.animeCache = animeCache;
+        this.animeChangeFeed = animeChangeFeed;
+        this.animeProperties = animeProperties;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "List all Animes",
             security = @SecurityRequirement(name = "Basic Authentication"),
             tags = {"Animes"})
-    public Flux<Anime> listAll() {
-        return animeService.findAll();
+    public Mono<ResponseEntity<Flux<Anime>>> listAll() {
+        // The catalogue is only read when the client's ETag no longer matches.
+        return animeService.findCatalogueVersion()
+                .map(version -> ResponseEntity.ok()
+                        .eTag(version)
+                        .cacheControl(cacheControl())
+                        .body(Flux.defer(animeService::findAll)));
     }
 
-    @GetMapping("{id}")
+    @GetMapping(params = "limit")
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List a page of Animes after the given ID",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Flux<Anime> listPage(@RequestParam(defaultValue = "0") int after, @RequestParam int limit) {
+        return animeService.findPage(after, limit);
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream all Animes as newline delimited JSON",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Mono<Void> streamNdjson(@RequestParam(defaultValue = "0") int after, ServerHttpResponse response) {
+        return writeAndFlushInBatches(response, MediaType.APPLICATION_NDJSON, animeService.findAllAfter(after),
+                anime -> concat(toJson(anime), NEWLINE));
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream all Animes as Server-Sent Events",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Mono<Void> streamEvents(@RequestHeader(value = "Last-Event-ID", defaultValue = "0") int lastEventId,
+                                   ServerHttpResponse response) {
+        return writeAndFlushInBatches(response, MediaType.TEXT_EVENT_STREAM, animeService.findAllAfter(lastEventId),
+                anime -> concat(("id:" + anime.getId() + "\ndata:").getBytes(StandardCharsets.UTF_8),
+                        toJson(anime), NEWLINE, NEWLINE));
+    }
+
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream Anime changes as Server-Sent Events, resuming after the given event id",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Flux<ServerSentEvent<AnimeChange>> changes(
+            @RequestParam(required = false) String after,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // Comments keep idle connections open through proxies that close silent ones.
+        Flux<ServerSentEvent<AnimeChange>> heartbeats = Flux.interval(animeProperties.getChanges().getHeartbeat())
+                .map(tick -> ServerSentEvent.<AnimeChange>builder().comment("heartbeat").build());
+        return animeChangeFeed.changes(lastEventId != null ? lastEventId : after)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(animeChangeFeed.eventId(change))
+                        .event(change.getType().name().toLowerCase(Locale.ROOT))
+                        .build())
+                .mergeWith(heartbeats);
+    }
+
+    @GetMapping("cache/stats")
     @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get Anime cache statistics",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Mono<AnimeCacheStats> cacheStats() {
+        return Mono.fromSupplier(animeCache::stats);
+    }
+
+    @GetMapping("search")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Search Animes by name, most relevant first",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Flux<Anime> search(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return animeService.search(q, limit);
+    }
+
+    @GetMapping("suggest")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Suggest Animes whose name starts with the given prefix",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Flux<Anime> suggest(@RequestParam String prefix, @RequestParam(required = false) Integer limit) {
+        return animeService.suggest(prefix, limit);
+    }
+
+    @GetMapping("{id}")
     @Operation(summary = "Get Anime by ID",
             security = @SecurityRequirement(name = "Basic Authentication"),
             tags = {"Animes"})
-    public Mono<Anime> findById(@PathVariable int id) {
-        return animeService.findById(id);
+    public Mono<ResponseEntity<Anime>> findById(@PathVariable int id) {
+        return animeService.findById(id)
+                .map(anime -> ResponseEntity.ok()
+                        .eTag(anime.getId() + "." + Objects.requireNonNullElse(anime.getVersion(), 0L))
+                        .cacheControl(cacheControl())
+                        .body(anime));
     }
 
     @PostMapping
@@ -68,6 +188,26 @@ public class AnimeController {
         return animeService.saveAll(animes);
     }
 
+    @PostMapping(value = "import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Import Animes from newline delimited JSON",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Flux<AnimeImportSummary> importNdjson(@RequestBody Flux<Anime> animes) {
+        return animeService.importAll(animes);
+    }
+
+    @PostMapping(value = "bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Bulk load Animes from newline delimited JSON",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Animes"})
+    public Flux<AnimeImportSummary> bulkLoad(@RequestBody Flux<Anime> animes) {
+        return animeService.bulkLoad(animes);
+    }
+
     @PutMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(summary = "Update Anime",
@@ -87,4 +227,38 @@ public class AnimeController {
         return animeService.delete(id);
     }
 
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(animeProperties.getHttp().getMaxAge()).cachePrivate().mustRevalidate();
+    }
+
+    private Mono<Void> writeAndFlushInBatches(ServerHttpResponse response, MediaType mediaType,
+                                              Flux<Anime> animes, Function<Anime, byte[]> encoder) {
+        response.getHeaders().setContentType(mediaType);
+        return response.writeAndFlushWith(animes
+                .map(anime -> response.bufferFactory().wrap(encoder.apply(anime)))
+                .window(animeProperties.getListing().getFlushBatchSize()));
+    }
+
+    private byte[] toJson(Anime anime) {
+        try {
+            return objectMapper.writeValueAsBytes(anime);
+        } catch (JsonProcessingException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
 }
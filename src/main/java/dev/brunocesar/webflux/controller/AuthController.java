@@ -0,0 +1,49 @@
+package dev.brunocesar.webflux.controller;
+
+import dev.brunocesar.webflux.domain.AuthToken;
+import dev.brunocesar.webflux.service.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("auth")
+@SecurityScheme(
+        name = "Bearer Token",
+        type = SecuritySchemeType.HTTP,
+        scheme = "bearer"
+)
+public class AuthController {
+
+    private final TokenService tokenService;
+
+    public AuthController(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @PostMapping("token")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Issue a short-lived Bearer Token",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"Auth"})
+    public Mono<AuthToken> token(Authentication authentication) {
+        if (!tokenService.isEnabled()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Token authentication is disabled"));
+        }
+        if (!(authentication.getPrincipal() instanceof UserDetails)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Username and password required"));
+        }
+        return Mono.fromSupplier(() -> tokenService.issue(authentication));
+    }
+
+}
@@ -1,7 +1,9 @@
 package dev.brunocesar.webflux.domain;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 import javax.validation.constraints.NotBlank;
@@ -16,6 +18,10 @@ public class Anime {
     @NotBlank(message = "name is required")
     private String name;
 
+    @Version
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+
     public Anime() {
     }
 
@@ -24,6 +30,12 @@ public class Anime {
         this.name = name;
     }
 
+    public Anime(Integer id, String name, Long version) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+    }
+
     public Integer getId() {
         return id;
     }
@@ -40,17 +52,26 @@ public class Anime {
         this.name = name;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Anime anime = (Anime) o;
-        return Objects.equals(id, anime.id) && Objects.equals(name, anime.name);
+        return Objects.equals(id, anime.id) && Objects.equals(name, anime.name)
+                && Objects.equals(version, anime.version);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, name);
+        return Objects.hash(id, name, version);
     }
 
     @Override
@@ -58,6 +79,7 @@ public class Anime {
         return "Anime{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
+                ", version=" + version +
                 '}';
     }
 
@@ -0,0 +1,80 @@
+package dev.brunocesar.webflux.domain;
+
+import java.util.Objects;
+
+public class AnimeCacheStats {
+
+    private long size;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    public AnimeCacheStats() {
+    }
+
+    public AnimeCacheStats(long size, long hits, long misses, long evictions) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AnimeCacheStats that = (AnimeCacheStats) o;
+        return size == that.size && hits == that.hits && misses == that.misses && evictions == that.evictions;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(size, hits, misses, evictions);
+    }
+
+    @Override
+    public String toString() {
+        return "AnimeCacheStats{" +
+                "size=" + size +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+}
@@ -0,0 +1,109 @@
+package dev.brunocesar.webflux.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Objects;
+
+/**
+ * A change to the anime table, as published by the {@code anime_notify_change} trigger. {@link Type#RESET} stands
+ * for changes too many to publish one by one. The sequence is assigned by the change feed of each instance.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnimeChange {
+
+    public enum Type {
+        INSERT, UPDATE, DELETE, RESET
+    }
+
+    private Long sequence;
+
+    private Type type;
+
+    private Integer id;
+
+    private String name;
+
+    private Long version;
+
+    public AnimeChange() {
+    }
+
+    public AnimeChange(Type type, Integer id, String name, Long version) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.version = version;
+    }
+
+    public AnimeChange withSequence(long sequence) {
+        var change = new AnimeChange(type, id, name, version);
+        change.setSequence(sequence);
+        return change;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AnimeChange that = (AnimeChange) o;
+        return Objects.equals(sequence, that.sequence) && type == that.type && Objects.equals(id, that.id) && Objects.equals(name, that.name)
+                && Objects.equals(version, that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, type, id, name, version);
+    }
+
+    @Override
+    public String toString() {
+        return "AnimeChange{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", id=" + id +
+                ", name='" + name + '\'' +
+                ", version=" + version +
+                '}';
+    }
+
+}
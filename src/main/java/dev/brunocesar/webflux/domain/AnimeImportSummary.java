@@ -0,0 +1,68 @@
+package dev.brunocesar.webflux.domain;
+
+import java.util.Objects;
+
+public class AnimeImportSummary {
+
+    private long chunk;
+
+    private long accepted;
+
+    private long rejected;
+
+    public AnimeImportSummary() {
+    }
+
+    public AnimeImportSummary(long chunk, long accepted, long rejected) {
+        this.chunk = chunk;
+        this.accepted = accepted;
+        this.rejected = rejected;
+    }
+
+    public long getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(long chunk) {
+        this.chunk = chunk;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AnimeImportSummary that = (AnimeImportSummary) o;
+        return chunk == that.chunk && accepted == that.accepted && rejected == that.rejected;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chunk, accepted, rejected);
+    }
+
+    @Override
+    public String toString() {
+        return "AnimeImportSummary{" +
+                "chunk=" + chunk +
+                ", accepted=" + accepted +
+                ", rejected=" + rejected +
+                '}';
+    }
+
+}
@@ -0,0 +1,68 @@
+package dev.brunocesar.webflux.domain;
+
+import java.util.Objects;
+
+public class AuthToken {
+
+    private String token;
+
+    private String tokenType;
+
+    private long expiresIn;
+
+    public AuthToken() {
+    }
+
+    public AuthToken(String token, String tokenType, long expiresIn) {
+        this.token = token;
+        this.tokenType = tokenType;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AuthToken authToken = (AuthToken) o;
+        return expiresIn == authToken.expiresIn && Objects.equals(token, authToken.token)
+                && Objects.equals(tokenType, authToken.tokenType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(token, tokenType, expiresIn);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthToken{" +
+                "tokenType='" + tokenType + '\'' +
+                ", expiresIn=" + expiresIn +
+                '}';
+    }
+
+}
@@ -0,0 +1,58 @@
+package dev.brunocesar.webflux.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses the comma-separated authorities column. The roles the application grants, and their usual
+ * combinations, are preallocated and shared; any other value is parsed into a new set, so that nothing read
+ * from the database or a token is retained here.
+ */
+public final class Authorities {
+
+    public static final GrantedAuthority ROLE_USER = new SimpleGrantedAuthority("ROLE_USER");
+
+    public static final GrantedAuthority ROLE_ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
+
+    private static final Map<String, GrantedAuthority> KNOWN_AUTHORITIES =
+            Map.of(ROLE_USER.getAuthority(), ROLE_USER, ROLE_ADMIN.getAuthority(), ROLE_ADMIN);
+
+    private static final Map<String, Set<GrantedAuthority>> KNOWN_AUTHORITY_SETS = Map.of(
+            "ROLE_USER", parseSet("ROLE_USER"),
+            "ROLE_ADMIN", parseSet("ROLE_ADMIN"),
+            "ROLE_ADMIN,ROLE_USER", parseSet("ROLE_ADMIN,ROLE_USER"),
+            "ROLE_USER,ROLE_ADMIN", parseSet("ROLE_USER,ROLE_ADMIN"));
+
+    private Authorities() {
+    }
+
+    public static GrantedAuthority of(String authority) {
+        GrantedAuthority known = KNOWN_AUTHORITIES.get(authority);
+        return known != null ? known : new SimpleGrantedAuthority(authority);
+    }
+
+    public static Set<GrantedAuthority> parse(String commaSeparatedAuthorities) {
+        if (commaSeparatedAuthorities == null || commaSeparatedAuthorities.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<GrantedAuthority> known = KNOWN_AUTHORITY_SETS.get(commaSeparatedAuthorities);
+        return known != null ? known : parseSet(commaSeparatedAuthorities);
+    }
+
+    private static Set<GrantedAuthority> parseSet(String commaSeparatedAuthorities) {
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        for (String authority : commaSeparatedAuthorities.split(",")) {
+            String trimmed = authority.trim();
+            if (!trimmed.isEmpty()) {
+                authorities.add(of(trimmed));
+            }
+        }
+        return Collections.unmodifiableSet(authorities);
+    }
+
+}
@@ -1,19 +1,20 @@
 package dev.brunocesar.webflux.domain;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Table;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Table("user")
 public class User implements UserDetails {
 
+    private static final long serialVersionUID = 1L;
+
     @Id
     private Integer id;
     private String name;
@@ -21,11 +22,21 @@ public class User implements UserDetails {
     private String password;
     private String authorities;
 
+    @Transient
+    private Set<GrantedAuthority> grantedAuthorities;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Arrays.stream(authorities.split(","))
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        return grantedAuthorities();
+    }
+
+    private Set<GrantedAuthority> grantedAuthorities() {
+        Set<GrantedAuthority> parsed = grantedAuthorities;
+        if (parsed == null) {
+            parsed = Authorities.parse(authorities);
+            grantedAuthorities = parsed;
+        }
+        return parsed;
     }
 
     @Override
@@ -84,6 +95,7 @@ public class User implements UserDetails {
 
     public void setAuthorities(String authorities) {
         this.authorities = authorities;
+        this.grantedAuthorities = null;
     }
 
     @Override
@@ -11,6 +11,8 @@ import java.util.Map;
 @Component
 public class CustomAttributes extends DefaultErrorAttributes {
 
+    static final String DEVELOPER_MESSAGE = "A ResponseStatusException happened";
+
     @Override
     public Map<String, Object> getErrorAttributes(ServerRequest request, ErrorAttributeOptions options) {
         Map<String, Object> errorAttributesMap = super.getErrorAttributes(request, options);
@@ -19,7 +21,13 @@ public class CustomAttributes extends DefaultErrorAttributes {
         if (throwable instanceof ResponseStatusException) {
             ResponseStatusException ex = (ResponseStatusException) throwable;
             errorAttributesMap.put("message", ex.getMessage());
-            errorAttributesMap.put("developerMessage", "A ResponseStatusException happened");
+            errorAttributesMap.put("developerMessage", DEVELOPER_MESSAGE);
+        } else if (throwable instanceof KnownErrorException) {
+            KnownErrorException ex = (KnownErrorException) throwable;
+            errorAttributesMap.put("status", ex.getStatus().value());
+            errorAttributesMap.put("error", ex.getStatus().getReasonPhrase());
+            errorAttributesMap.put("message", ex.getMessage());
+            errorAttributesMap.put("developerMessage", DEVELOPER_MESSAGE);
         }
 
         return errorAttributesMap;
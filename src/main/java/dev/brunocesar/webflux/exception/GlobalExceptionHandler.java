@@ -1,18 +1,31 @@
 package dev.brunocesar.webflux.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.web.WebProperties;
 import org.springframework.boot.autoconfigure.web.reactive.error.AbstractErrorWebExceptionHandler;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -20,12 +33,40 @@ import java.util.Optional;
 @Order(-2)
 public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final byte[] TIMESTAMP_FIELD = ascii("{\"timestamp\":");
+
+    private static final byte[] PATH_FIELD = ascii(",\"path\":\"");
+
+    private final Map<KnownErrorException, ErrorBodyTemplate> templates = new IdentityHashMap<>();
+
+    private final ObjectWriter timestampWriter;
+
     public GlobalExceptionHandler(ErrorAttributes errorAttributes,
                                   WebProperties.Resources resources,
                                   ApplicationContext applicationContext,
-                                  ServerCodecConfigurer serverCodecConfigurer) {
+                                  ServerCodecConfigurer serverCodecConfigurer,
+                                  ObjectMapper objectMapper) {
         super(errorAttributes, resources, applicationContext);
         this.setMessageWriters(serverCodecConfigurer.getWriters());
+        // The error attributes hold a Date, which the JSON codec writes according to the application's settings.
+        this.timestampWriter = objectMapper.writerFor(Date.class);
+        KnownErrorException.values().forEach(error -> templates.put(error, new ErrorBodyTemplate(error)));
+    }
+
+    /**
+     * Writes known errors straight from their pre-encoded template, producing the same body as
+     * {@link CustomAttributes} without building the attribute map or a server request. Only the timestamp goes
+     * through Jackson, so that it is formatted as the JSON codec formats it.
+     */
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable throwable) {
+        if (throwable instanceof KnownErrorException && !exchange.getResponse().isCommitted()
+                && !isTraceRequested(exchange)) {
+            return writeKnownError(exchange, (KnownErrorException) throwable);
+        }
+        return super.handle(exchange, throwable);
     }
 
     @Override
@@ -47,4 +88,94 @@ public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
                 .body(BodyInserters.fromValue(errorAttributes));
     }
 
+    private Mono<Void> writeKnownError(ServerWebExchange exchange, KnownErrorException error) {
+        ErrorBodyTemplate template = templates.get(error);
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (error.getStatus().is5xxServerError()) {
+            log.error("{}{} {} for HTTP {} \"{}\": {}", exchange.getLogPrefix(), error.getStatus().value(),
+                    error.getStatus().getReasonPhrase(), exchange.getRequest().getMethodValue(), path,
+                    error.getMessage());
+        }
+        byte[] escapedPath = isPlainAscii(path) ? null : JsonStringEncoder.getInstance().quoteAsUTF8(path);
+        byte[] timestamp = timestamp();
+        String requestId = exchange.getRequest().getId();
+
+        int length = TIMESTAMP_FIELD.length + timestamp.length + PATH_FIELD.length
+                + (escapedPath == null ? path.length() : escapedPath.length)
+                + template.beforeRequestId.length + requestId.length() + template.afterRequestId.length;
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(error.getStatus());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(length);
+
+        DataBuffer body = response.bufferFactory().allocateBuffer(length);
+        body.write(TIMESTAMP_FIELD);
+        body.write(timestamp);
+        body.write(PATH_FIELD);
+        if (escapedPath == null) {
+            writeAscii(body, path);
+        } else {
+            body.write(escapedPath);
+        }
+        body.write(template.beforeRequestId);
+        writeAscii(body, requestId);
+        body.write(template.afterRequestId);
+        return response.writeWith(Mono.just(body));
+    }
+
+    private byte[] timestamp() {
+        try {
+            return timestampWriter.writeValueAsBytes(new Date());
+        } catch (JsonProcessingException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    private static boolean isTraceRequested(ServerWebExchange exchange) {
+        String trace = exchange.getRequest().getQueryParams().getFirst("trace");
+        return trace != null && !"false".equalsIgnoreCase(trace);
+    }
+
+    private static boolean isPlainAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x7f || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeAscii(DataBuffer buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer.write((byte) value.charAt(i));
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The constant parts of a known error body, in the field order {@link CustomAttributes} produces.
+     */
+    private static final class ErrorBodyTemplate {
+
+        private final byte[] beforeRequestId;
+
+        private final byte[] afterRequestId;
+
+        private ErrorBodyTemplate(KnownErrorException error) {
+            var encoder = JsonStringEncoder.getInstance();
+            this.beforeRequestId = ascii("\",\"status\":" + error.getStatus().value()
+                    + ",\"error\":\"" + new String(encoder.quoteAsString(error.getStatus().getReasonPhrase()))
+                    + "\",\"requestId\":\"");
+            this.afterRequestId = ("\",\"message\":\"" + new String(encoder.quoteAsString(error.getMessage()))
+                    + "\",\"developerMessage\":\"" + CustomAttributes.DEVELOPER_MESSAGE + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+    }
+
 }
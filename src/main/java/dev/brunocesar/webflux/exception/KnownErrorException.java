@@ -0,0 +1,65 @@
+package dev.brunocesar.webflux.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * Preallocated errors for failures that clients trigger routinely, such as looking up a missing anime.
+ * <p>
+ * Instances are created without a stack trace and with suppression disabled, so a single instance can be
+ * signalled by any number of requests: Reactor's checkpoints cannot attach tracebacks to it. The
+ * {@link GlobalExceptionHandler} renders them from a pre-encoded template. The message keeps the
+ * {@code ResponseStatusException} format so that error bodies are unchanged.
+ */
+public final class KnownErrorException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final KnownErrorException ANIME_NOT_FOUND =
+            new KnownErrorException(HttpStatus.NOT_FOUND, "Anime not found");
+
+    public static final KnownErrorException ANIME_CONFLICT =
+            new KnownErrorException(HttpStatus.CONFLICT, "Anime was modified concurrently");
+
+    public static final KnownErrorException INVALID_LIMIT =
+            new KnownErrorException(HttpStatus.BAD_REQUEST, "Invalid Limit");
+
+    public static final KnownErrorException INVALID_NAME =
+            new KnownErrorException(HttpStatus.BAD_REQUEST, "Invalid Name");
+
+    public static final KnownErrorException INVALID_QUERY =
+            new KnownErrorException(HttpStatus.BAD_REQUEST, "Invalid Query");
+
+    public static final KnownErrorException INVALID_PREFIX =
+            new KnownErrorException(HttpStatus.BAD_REQUEST, "Invalid Prefix");
+
+    public static final KnownErrorException LOOKUP_UNAVAILABLE =
+            new KnownErrorException(HttpStatus.SERVICE_UNAVAILABLE, "Anime lookup unavailable");
+
+    private static final List<KnownErrorException> VALUES = List.of(ANIME_NOT_FOUND, ANIME_CONFLICT,
+            INVALID_LIMIT, INVALID_NAME, INVALID_QUERY, INVALID_PREFIX, LOOKUP_UNAVAILABLE);
+
+    private final HttpStatus status;
+
+    private final String reason;
+
+    private KnownErrorException(HttpStatus status, String reason) {
+        super(status + " \"" + reason + "\"", null, false, false);
+        this.status = status;
+        this.reason = reason;
+    }
+
+    public static List<KnownErrorException> values() {
+        return VALUES;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+}
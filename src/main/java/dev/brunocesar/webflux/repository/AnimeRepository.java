@@ -1,11 +1,26 @@
 package dev.brunocesar.webflux.repository;
 
 import dev.brunocesar.webflux.domain.Anime;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface AnimeRepository extends ReactiveCrudRepository<Anime, Integer> {
+public interface AnimeRepository extends ReactiveCrudRepository<Anime, Integer>, AnimeRepositoryCustom {
 
     Mono<Anime> findById(int id);
 
+    @Query("SELECT * FROM anime WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<Anime> findPageAfter(int after, int limit);
+
+    @Query("SELECT id FROM anime WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<Integer> findIdsAfter(int after, int limit);
+
+    @Query("SELECT * FROM anime WHERE name ILIKE '%' || :term || '%' OR name % :query "
+            + "ORDER BY name ILIKE :term || '%' DESC, similarity(name, :query) DESC, id LIMIT :limit")
+    Flux<Anime> search(String query, String term, int limit);
+
+    @Query("SELECT COUNT(*) || '.' || COALESCE(MAX(id), 0) || '.' || COALESCE(SUM(version), 0) FROM anime")
+    Mono<String> findCatalogueVersion();
+
 }
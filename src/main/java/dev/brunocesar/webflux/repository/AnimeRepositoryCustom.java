@@ -0,0 +1,33 @@
+package dev.brunocesar.webflux.repository;
+
+import dev.brunocesar.webflux.domain.Anime;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AnimeRepositoryCustom {
+
+    Flux<Anime> insertAll(List<Anime> animes);
+
+    /**
+     * Inserts the anime without publishing them on the {@code anime_changes} channel; see {@link #notifyReset()}.
+     */
+    Mono<Integer> bulkInsert(List<Anime> animes);
+
+    /**
+     * Tells every instance listening on the {@code anime_changes} channel to reload everything.
+     */
+    Mono<Void> notifyReset();
+
+    Flux<Anime> findAllByIdIn(Collection<Integer> ids);
+
+    /**
+     * Renames the anime and increments its version in one statement, only if its version is still
+     * {@code expectedVersion} when one is given. Completes empty when the anime does not exist and fails with
+     * {@link org.springframework.dao.OptimisticLockingFailureException} when the version no longer matches.
+     */
+    Mono<Anime> updateName(int id, String name, Long expectedVersion);
+
+}
@@ -0,0 +1,120 @@
+package dev.brunocesar.webflux.repository;
+
+import dev.brunocesar.webflux.domain.Anime;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+public class AnimeRepositoryCustomImpl implements AnimeRepositoryCustom {
+
+    // The transaction-local setting keeps the notify trigger quiet; the bulk load publishes one reset at the end.
+    private static final String BULK_INSERT_SQL = "INSERT INTO anime (name) SELECT name "
+            + "FROM unnest($1::text[]) AS name, set_config('anime.notify_suppress', 'on', true) AS suppress";
+
+    private static final String NOTIFY_RESET_SQL =
+            "SELECT pg_notify('anime_changes', json_build_object('type', 'RESET')::text)";
+
+    private static final String FIND_ALL_BY_ID_IN_SQL = "SELECT id, name, version FROM anime WHERE id = ANY($1)";
+
+    private static final String UPDATE_NAME_SQL = "UPDATE anime SET name = $1, version = version + 1 "
+            + "WHERE id = $2 RETURNING id, name, version, TRUE AS updated";
+
+    // The second branch reports the current row, in the same round trip, when the version check failed.
+    private static final String UPDATE_NAME_IF_VERSION_SQL = "WITH updated AS ("
+            + "UPDATE anime SET name = $1, version = version + 1 WHERE id = $2 AND version = $3 "
+            + "RETURNING id, name, version) "
+            + "SELECT id, name, version, TRUE AS updated FROM updated "
+            + "UNION ALL "
+            + "SELECT id, name, version, FALSE AS updated FROM anime "
+            + "WHERE id = $2 AND NOT EXISTS (SELECT 1 FROM updated)";
+
+    private final DatabaseClient databaseClient;
+
+    public AnimeRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Anime> insertAll(List<Anime> animes) {
+        if (animes.isEmpty()) {
+            return Flux.empty();
+        }
+
+        var sql = new StringBuilder("INSERT INTO anime (name) VALUES ");
+        for (int i = 1; i <= animes.size(); i++) {
+            sql.append(i == 1 ? "($" : ", ($").append(i).append(')');
+        }
+        // Postgres does not promise RETURNING rows in VALUES order, so each row reports its own name.
+        sql.append(" RETURNING id, name, version");
+
+        var spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < animes.size(); i++) {
+            spec = spec.bind(i, animes.get(i).getName());
+        }
+
+        return spec.map(row -> new Anime(row.get("id", Integer.class), row.get("name", String.class),
+                        row.get("version", Long.class)))
+                .all();
+    }
+
+    @Override
+    public Mono<Integer> bulkInsert(List<Anime> animes) {
+        if (animes.isEmpty()) {
+            return Mono.just(0);
+        }
+
+        String[] names = animes.stream()
+                .map(Anime::getName)
+                .toArray(String[]::new);
+
+        return databaseClient.sql(BULK_INSERT_SQL)
+                .bind(0, names)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Void> notifyReset() {
+        return databaseClient.sql(NOTIFY_RESET_SQL)
+                .then();
+    }
+
+    @Override
+    public Flux<Anime> findAllByIdIn(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return databaseClient.sql(FIND_ALL_BY_ID_IN_SQL)
+                .bind(0, ids.toArray(Integer[]::new))
+                .map(row -> new Anime(row.get("id", Integer.class), row.get("name", String.class),
+                        row.get("version", Long.class)))
+                .all();
+    }
+
+    @Override
+    public Mono<Anime> updateName(int id, String name, Long expectedVersion) {
+        var spec = databaseClient.sql(expectedVersion == null ? UPDATE_NAME_SQL : UPDATE_NAME_IF_VERSION_SQL)
+                .bind(0, name)
+                .bind(1, id);
+        if (expectedVersion != null) {
+            spec = spec.bind(2, expectedVersion);
+        }
+
+        return spec.map(row -> {
+                    var anime = new Anime(row.get("id", Integer.class), row.get("name", String.class),
+                            row.get("version", Long.class));
+                    if (!Boolean.TRUE.equals(row.get("updated", Boolean.class))) {
+                        throw new OptimisticLockingFailureException("Anime " + id + " is at version "
+                                + anime.getVersion() + ", not " + expectedVersion);
+                    }
+                    return anime;
+                })
+                .one();
+    }
+
+}
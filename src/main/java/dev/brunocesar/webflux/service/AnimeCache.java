@@ -0,0 +1,85 @@
+package dev.brunocesar.webflux.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.config.ReadYourWrites;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeCacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+@Component
+public class AnimeCache implements MeterBinder {
+
+    private final boolean enabled;
+
+    private final AsyncCache<Integer, Anime> cache;
+
+    private final ReadYourWrites readYourWrites;
+
+    public AnimeCache(AnimeProperties animeProperties, ReadYourWrites readYourWrites) {
+        AnimeProperties.Cache properties = animeProperties.getCache();
+        this.enabled = properties.isEnabled();
+        this.readYourWrites = readYourWrites;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Mono<Anime> get(int id, IntFunction<Mono<Anime>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return Mono.deferContextual(context -> {
+            if (readYourWrites.hasRecentWrites()) {
+                // Reads are routed per principal and a replica may lag behind the write, so a miss is loaded
+                // for this caller alone and not stored.
+                CompletableFuture<Anime> cached = cache.getIfPresent(id);
+                return cached != null && cached.isDone() && !cached.isCompletedExceptionally()
+                        ? Mono.fromFuture(cached.copy())
+                        : loader.apply(id);
+            }
+            // Concurrent misses for the same id share one load, run in the context of the caller that started it;
+            // each subscriber gets its own copy so that a cancelled request does not cancel the load for the others.
+            CompletableFuture<Anime> load = cache.get(id, (key, executor) ->
+                    loader.apply(key).contextWrite(context).toFuture());
+            return Mono.fromFuture(load.copy())
+                    .doOnNext(anime -> {
+                        // A write made while loading may not have reached the replica that was read.
+                        if (readYourWrites.hasRecentWrites()) {
+                            cache.asMap().remove(id, load);
+                        }
+                    });
+        });
+    }
+
+    public void invalidate(int id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "anime");
+    }
+
+    public AnimeCacheStats stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new AnimeCacheStats(cache.synchronous().estimatedSize(),
+                stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+}
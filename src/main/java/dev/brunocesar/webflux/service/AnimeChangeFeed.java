@@ -0,0 +1,154 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeChange;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Numbers anime changes and multicasts them to every subscriber of {@code GET /animes/changes}.
+ * <p>
+ * Changes come from this instance's {@link AnimeService} writes, or, when {@code anime.invalidation.enabled} is
+ * set, from the {@link AnimeChangeListener} so that every instance's writes are seen. Event ids are
+ * {@code <epoch>-<sequence>}, where the epoch is drawn at random when the instance starts, because sequences are
+ * only meaningful within one run of one instance. The last {@code anime.changes.replay-size} changes are kept so
+ * that a client can resume after the event id it last received; a client that resumes from further back, or
+ * with an id from another instance or an earlier run, gets a {@link AnimeChange.Type#RESET} first and should
+ * reload. Each subscriber has a buffer of
+ * {@code anime.changes.buffer-size} changes that drops changes by {@code anime.changes.overflow} when the client
+ * falls behind, which leaves a gap in the sequence; writers never wait for subscribers.
+ */
+@Component
+public class AnimeChangeFeed implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AnimeChangeFeed.class);
+
+    private final AnimeProperties animeProperties;
+
+    private final AnimeProperties.Changes properties;
+
+    private final Sinks.Many<AnimeChange> sink;
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private long sequence;
+
+    public AnimeChangeFeed(AnimeProperties animeProperties) {
+        this.animeProperties = animeProperties;
+        this.properties = animeProperties.getChanges();
+        this.sink = Sinks.many().replay().limit(properties.getReplaySize());
+    }
+
+    public void created(Anime anime) {
+        publishLocal(new AnimeChange(AnimeChange.Type.INSERT, anime.getId(), anime.getName(), anime.getVersion()));
+    }
+
+    public void updated(Anime anime) {
+        publishLocal(new AnimeChange(AnimeChange.Type.UPDATE, anime.getId(), anime.getName(), anime.getVersion()));
+    }
+
+    public void deleted(int id) {
+        publishLocal(new AnimeChange(AnimeChange.Type.DELETE, id, null, null));
+    }
+
+    public void reset() {
+        publishLocal(new AnimeChange(AnimeChange.Type.RESET, null, null, null));
+    }
+
+    /**
+     * Publishes a change committed by any instance, as received from the database.
+     */
+    public synchronized void publish(AnimeChange change) {
+        Sinks.EmitResult result = sink.tryEmitNext(change.withSequence(++sequence));
+        if (result.isFailure()) {
+            log.warn("Could not publish anime change {}: {}", sequence, result);
+        }
+    }
+
+    /**
+     * Changes published after the event id {@code lastEventId}, or after the latest change when it is null.
+     */
+    public Flux<AnimeChange> changes(String lastEventId) {
+        return Flux.defer(() -> {
+            long latest = latestSequence();
+            long resumeAfter = lastEventId == null ? latest : resumeAfter(lastEventId, latest);
+            boolean resumable = resumeAfter >= 0;
+            long from = resumable ? resumeAfter : latest;
+            Flux<AnimeChange> changes = sink.asFlux().filter(change -> change.getSequence() > from);
+            if (!resumable) {
+                var reset = new AnimeChange(AnimeChange.Type.RESET, null, null, null).withSequence(latest);
+                changes = changes.startWith(reset);
+            }
+            return changes
+                    .onBackpressureBuffer(properties.getBufferSize(), change -> dropped.increment(),
+                            properties.getOverflow())
+                    .publishOn(Schedulers.parallel(), properties.getPrefetch());
+        })
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    public synchronized long latestSequence() {
+        return sequence;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public String eventId(AnimeChange change) {
+        return epoch + "-" + change.getSequence();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("anime.changes.subscribers", subscribers, AtomicInteger::get)
+                .description("Clients subscribed to the anime change feed")
+                .register(registry);
+        FunctionCounter.builder("anime.changes.dropped", dropped, LongAdder::sum)
+                .description("Changes dropped because a subscriber fell behind")
+                .register(registry);
+    }
+
+    /**
+     * The sequence to resume after, or -1 when the event id is not from this run or is no longer replayable.
+     */
+    private long resumeAfter(String lastEventId, long latest) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return after <= latest && after >= latest - properties.getReplaySize() ? after : -1;
+    }
+
+    private void publishLocal(AnimeChange change) {
+        // The listener publishes this instance's writes too, in commit order.
+        if (!animeProperties.getInvalidation().isEnabled()) {
+            publish(change);
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package dev.brunocesar.webflux.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeChange;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the caches and in-memory indexes of this instance current with the writes made by every instance.
+ * <p>
+ * The {@code anime_notify_change} trigger publishes each change to the {@code anime_changes} channel, or a single
+ * reset for statements that change more than {@code anime.notify_max_rows} rows; bulk loads publish one reset once
+ * they end. This listener
+ * holds a dedicated connection, outside the pool, that listens on the channel, applies each change locally and
+ * publishes it to the {@link AnimeChangeFeed}; its own writes come back too and are applied again harmlessly.
+ * Notifications sent while the connection is down are lost, so after a reconnect everything is treated as
+ * changed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "anime.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AnimeChangeListener implements SmartLifecycle {
+
+    static final String CHANNEL = "anime_changes";
+
+    private static final Logger log = LoggerFactory.getLogger(AnimeChangeListener.class);
+
+    private final R2dbcProperties r2dbcProperties;
+
+    private final AnimeProperties.Invalidation properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final AnimeCache animeCache;
+
+    private final AnimeSuggestionIndex animeSuggestionIndex;
+
+    private final AnimeIdIndex animeIdIndex;
+
+    private final AnimeSnapshot animeSnapshot;
+
+    private final AnimeChangeFeed animeChangeFeed;
+
+    private final int batchChunkSize;
+
+    private final AtomicBoolean listenedBefore = new AtomicBoolean();
+
+    private volatile Disposable listening;
+
+    public AnimeChangeListener(R2dbcProperties r2dbcProperties, AnimeProperties animeProperties,
+                               ObjectMapper objectMapper, AnimeCache animeCache,
+                               AnimeSuggestionIndex animeSuggestionIndex, AnimeIdIndex animeIdIndex,
+                               AnimeSnapshot animeSnapshot, AnimeChangeFeed animeChangeFeed) {
+        this.r2dbcProperties = r2dbcProperties;
+        this.properties = animeProperties.getInvalidation();
+        this.objectMapper = objectMapper;
+        this.animeCache = animeCache;
+        this.animeSuggestionIndex = animeSuggestionIndex;
+        this.animeIdIndex = animeIdIndex;
+        this.animeSnapshot = animeSnapshot;
+        this.animeChangeFeed = animeChangeFeed;
+        this.batchChunkSize = animeProperties.getBatch().getChunkSize();
+    }
+
+    @Override
+    public void start() {
+        if (batchChunkSize > properties.getNotifyMaxRows()) {
+            log.warn("anime.batch.chunk-size {} is above anime.invalidation.notify-max-rows {}: every full batch "
+                    + "chunk resets the caches and indexes of every instance", batchChunkSize,
+                    properties.getNotifyMaxRows());
+        }
+        ConnectionFactory connectionFactory = connectionFactory(r2dbcProperties);
+        listening = Flux.usingWhen(connectionFactory.create(), this::listen, Connection::close)
+                .repeatWhen(closed -> closed.delayElements(properties.getMinBackoff()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getMinBackoff())
+                        .maxBackoff(properties.getMaxBackoff())
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Lost the {} listening connection: {}",
+                                CHANNEL, signal.failure().getMessage())))
+                .subscribe(this::apply);
+    }
+
+    @Override
+    public void stop() {
+        if (listening != null) {
+            listening.dispose();
+            listening = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return listening != null;
+    }
+
+    public void apply(AnimeChange change) {
+        animeChangeFeed.publish(change);
+        if (change.getType() == AnimeChange.Type.RESET || change.getId() == null) {
+            animeCache.invalidateAll();
+            animeIdIndex.invalidateMisses();
+            animeSuggestionIndex.refresh();
+            animeIdIndex.refresh();
+            animeSnapshot.refresh();
+            return;
+        }
+        int id = change.getId();
+        animeCache.invalidate(id);
+        if (change.getType() == AnimeChange.Type.DELETE) {
+            animeSuggestionIndex.remove(id);
+            animeIdIndex.remove(id);
+            animeSnapshot.remove(id);
+        } else {
+            var anime = new Anime(id, change.getName(), change.getVersion());
+            animeSuggestionIndex.put(anime);
+            animeIdIndex.put(id);
+            animeSnapshot.put(anime);
+        }
+    }
+
+    private Flux<AnimeChange> listen(Connection connection) {
+        if (!(connection instanceof PostgresqlConnection)) {
+            return Flux.error(new IllegalStateException("LISTEN needs a PostgreSQL connection, got "
+                    + connection.getClass().getName()));
+        }
+        var postgresqlConnection = (PostgresqlConnection) connection;
+        return postgresqlConnection.createStatement("LISTEN " + CHANNEL)
+                .execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .thenMany(Flux.defer(() -> {
+                    log.info("Listening for anime changes on {}", CHANNEL);
+                    // Caches and indexes start empty or load by themselves on the first connection.
+                    Flux<AnimeChange> missed = listenedBefore.getAndSet(true)
+                            ? Flux.just(new AnimeChange(AnimeChange.Type.RESET, null, null, null))
+                            : Flux.empty();
+                    return missed.concatWith(postgresqlConnection.getNotifications().flatMap(this::parse));
+                }));
+    }
+
+    private Mono<AnimeChange> parse(Notification notification) {
+        try {
+            return Mono.just(objectMapper.readValue(notification.getParameter(), AnimeChange.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed anime change {}: {}", notification.getParameter(), e.getMessage());
+            return Mono.empty();
+        }
+    }
+
+    private static ConnectionFactory connectionFactory(R2dbcProperties properties) {
+        var connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl());
+        var map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(properties.getUsername()).to(connectionFactory::username);
+        map.from(properties.getPassword()).to(connectionFactory::password);
+        return connectionFactory.build();
+    }
+
+}
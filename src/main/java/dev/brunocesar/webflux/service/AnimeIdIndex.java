@@ -0,0 +1,263 @@
+package dev.brunocesar.webflux.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tells whether an anime ID can exist without querying the database, so that lookups for missing IDs are
+ * answered early.
+ * <p>
+ * IDs are serial, so the existing ones are kept in a bitmap of one bit per ID up to {@code anime.id-index.max-id}.
+ * The bitmap is loaded in the background and kept current by the writes made through {@link AnimeService}; until
+ * it is loaded, and while a bulk load whose IDs are not returned is running, any ID may exist. IDs outside the
+ * bitmap always go to the database. Rows written by other instances reach the bitmap through the
+ * {@link AnimeChangeListener}, so the bitmap is only used while {@code anime.invalidation.enabled} is set; without
+ * it every ID may exist. IDs that the database did not find are also remembered for
+ * {@code anime.id-index.negative-ttl}.
+ */
+@Component
+public class AnimeIdIndex implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AnimeIdIndex.class);
+
+    private final AnimeRepository animeRepository;
+
+    private final AnimeProperties.IdIndex properties;
+
+    private final boolean bitmapEnabled;
+
+    private final Cache<Integer, Boolean> misses;
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    private final AtomicInteger suspensions = new AtomicInteger();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder bitmapRejections = new LongAdder();
+
+    private final LongAdder negativeCacheRejections = new LongAdder();
+
+    private volatile AtomicLongArray bits = new AtomicLongArray(0);
+
+    private volatile boolean loaded;
+
+    // Writes made while loading, replayed over the loaded bitmap: an ID for a put, its negation for a remove.
+    private List<Integer> pendingWrites;
+
+    public AnimeIdIndex(AnimeRepository animeRepository, AnimeProperties animeProperties) {
+        this.animeRepository = animeRepository;
+        this.properties = animeProperties.getIdIndex();
+        this.bitmapEnabled = properties.isEnabled() && animeProperties.getInvalidation().isEnabled();
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeMaximumSize())
+                .expireAfterWrite(properties.getNegativeTtl())
+                .recordStats()
+                .build();
+    }
+
+    public boolean mightExist(int id) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        if (bitmapEnabled && isTracked(id) && isComplete() && !isSet(bits, id)) {
+            bitmapRejections.increment();
+            return false;
+        }
+        if (misses.getIfPresent(id) != null) {
+            negativeCacheRejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void recordMiss(int id) {
+        if (properties.isEnabled() && !properties.getNegativeTtl().isZero()) {
+            misses.put(id, Boolean.TRUE);
+        }
+    }
+
+    public synchronized void put(Integer id) {
+        if (id == null) {
+            return;
+        }
+        misses.invalidate(id);
+        if (!isTracked(id)) {
+            return;
+        }
+        AtomicLongArray current = bits;
+        int word = id >>> 6;
+        if (word >= current.length()) {
+            current = grow(current, word + 1, (properties.getMaxId() >>> 6) + 1);
+        }
+        current.getAndUpdate(word, value -> value | (1L << id));
+        bits = current;
+        if (pendingWrites != null) {
+            pendingWrites.add(id);
+        }
+    }
+
+    public synchronized void remove(int id) {
+        if (!isTracked(id)) {
+            return;
+        }
+        AtomicLongArray current = bits;
+        int word = id >>> 6;
+        if (word < current.length()) {
+            current.getAndUpdate(word, value -> value & ~(1L << id));
+        }
+        if (pendingWrites != null) {
+            pendingWrites.add(-id);
+        }
+    }
+
+    /**
+     * Makes every ID a possible hit until {@link #resume()}, for writes that do not return the IDs they create.
+     */
+    public void suspend() {
+        suspensions.incrementAndGet();
+    }
+
+    /**
+     * Ends a {@link #suspend()} and reloads the bitmap, which is not trusted again until that load completes.
+     */
+    public void resume() {
+        invalidations.incrementAndGet();
+        loaded = false;
+        suspensions.decrementAndGet();
+        refresh();
+    }
+
+    /**
+     * Reloads the bitmap in the background. A refresh requested while one is running is run again once it
+     * completes.
+     */
+    public void refresh() {
+        if (!bitmapEnabled) {
+            return;
+        }
+        reloadRequested.set(true);
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        reloadRequested.set(false);
+        load()
+                .doFinally(signal -> {
+                    loading.set(false);
+                    if (reloadRequested.get()) {
+                        refresh();
+                    }
+                })
+                .subscribe(size -> log.info("Loaded {} anime IDs into the ID index", size),
+                        error -> log.warn("Could not load the ID index: {}", error.getMessage()));
+    }
+
+    public Mono<Integer> load() {
+        int pageSize = properties.getPageSize();
+        return Mono.defer(() -> {
+            long generation = startLoad();
+            var loadedIds = new BitSet();
+            // Read from the primary: an ID missing from a lagging replica would be rejected.
+            return fetchPage(0, pageSize)
+                    .expand(page -> page.size() < pageSize
+                            ? Mono.empty()
+                            : fetchPage(page.get(page.size() - 1), pageSize))
+                    .doOnNext(page -> page.stream().filter(this::isTracked).forEach(loadedIds::set))
+                    .then(Mono.fromSupplier(() -> install(loadedIds, generation)))
+                    .doOnError(error -> abandonLoad());
+        });
+    }
+
+    public boolean isComplete() {
+        return loaded && suspensions.get() == 0;
+    }
+
+    public void invalidateMisses() {
+        misses.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("anime.ids.bitmap.bytes", this, index -> index.bits.length() * (double) Long.BYTES)
+                .description("Memory used by the bitmap of existing anime IDs")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("anime.ids.rejected", bitmapRejections, LongAdder::sum)
+                .description("Lookups answered as not found without querying the database")
+                .tag("source", "bitmap")
+                .register(registry);
+        FunctionCounter.builder("anime.ids.rejected", negativeCacheRejections, LongAdder::sum)
+                .description("Lookups answered as not found without querying the database")
+                .tag("source", "negative-cache")
+                .register(registry);
+        CaffeineCacheMetrics.monitor(registry, misses, "anime-misses");
+    }
+
+    private Mono<List<Integer>> fetchPage(int after, int limit) {
+        return animeRepository.findIdsAfter(after, limit).collectList();
+    }
+
+    private synchronized long startLoad() {
+        pendingWrites = new ArrayList<>();
+        return invalidations.get();
+    }
+
+    private synchronized int install(BitSet loadedIds, long generation) {
+        for (int write : pendingWrites) {
+            if (write > 0) {
+                loadedIds.set(write);
+            } else {
+                loadedIds.clear(-write);
+            }
+        }
+        pendingWrites = null;
+        bits = new AtomicLongArray(loadedIds.toLongArray());
+        // A bulk load that ended while loading may have written rows this load did not see.
+        loaded = generation == invalidations.get();
+        return loadedIds.cardinality();
+    }
+
+    private synchronized void abandonLoad() {
+        pendingWrites = null;
+    }
+
+    private boolean isTracked(int id) {
+        return id > 0 && id <= properties.getMaxId();
+    }
+
+    private static boolean isSet(AtomicLongArray bits, int id) {
+        int word = id >>> 6;
+        return word < bits.length() && (bits.get(word) & (1L << id)) != 0;
+    }
+
+    private static AtomicLongArray grow(AtomicLongArray current, int minLength, int maxLength) {
+        var grown = new AtomicLongArray(Math.min(Math.max(minLength, current.length() * 2), maxLength));
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        return grown;
+    }
+
+}
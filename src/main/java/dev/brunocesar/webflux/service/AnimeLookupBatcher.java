@@ -0,0 +1,171 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.config.DatabaseRoute;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.exception.KnownErrorException;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent lookups by id into {@code WHERE id IN (...)} queries.
+ * <p>
+ * Lookups wait in a queue of at most {@code anime.lookup.max-pending} entries. A batch is taken from the queue
+ * when it holds {@code max-batch-size} lookups or when {@code batch-window} has passed since the first one, but
+ * only while fewer than {@code max-concurrent-batches} queries are running; otherwise the lookups stay queued
+ * until a query finishes. Lookups that find the queue full, or wait longer than {@code anime.lookup.timeout},
+ * fail with {@link KnownErrorException#LOOKUP_UNAVAILABLE}. A failed query fails only the lookups of its batch.
+ */
+@Component
+public class AnimeLookupBatcher {
+
+    private final AnimeRepository animeRepository;
+
+    private final AnimeProperties.Lookup properties;
+
+    private final Queue<Lookup> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final AtomicBoolean timerArmed = new AtomicBoolean();
+
+    private volatile boolean flushDue;
+
+    private volatile boolean disposed;
+
+    private volatile Disposable timer;
+
+    public AnimeLookupBatcher(AnimeRepository animeRepository, AnimeProperties animeProperties) {
+        this.animeRepository = animeRepository;
+        this.properties = animeProperties.getLookup();
+    }
+
+    public Mono<Anime> findById(int id) {
+        return Mono.<Anime>create(sink -> enqueue(new Lookup(id, sink)))
+                .timeout(properties.getTimeout(), Mono.error(KnownErrorException.LOOKUP_UNAVAILABLE));
+    }
+
+    @PreDestroy
+    public void dispose() {
+        disposed = true;
+        Disposable scheduled = timer;
+        if (scheduled != null) {
+            scheduled.dispose();
+        }
+        Lookup lookup;
+        while ((lookup = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            lookup.sink.error(KnownErrorException.LOOKUP_UNAVAILABLE);
+        }
+    }
+
+    private void enqueue(Lookup lookup) {
+        if (disposed || pendingCount.incrementAndGet() > properties.getMaxPending()) {
+            pendingCount.decrementAndGet();
+            lookup.sink.error(KnownErrorException.LOOKUP_UNAVAILABLE);
+            return;
+        }
+        lookup.sink.onCancel(() -> lookup.cancelled = true);
+        pending.offer(lookup);
+        if (timerArmed.compareAndSet(false, true)) {
+            timer = Schedulers.parallel().schedule(this::flush,
+                    properties.getBatchWindow().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        drain();
+    }
+
+    private void flush() {
+        flushDue = true;
+        timerArmed.set(false);
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (inFlight.get() < properties.getMaxConcurrentBatches()
+                    && (flushDue || pendingCount.get() >= properties.getMaxBatchSize())) {
+                List<Lookup> batch = poll();
+                if (batch.isEmpty()) {
+                    flushDue = false;
+                    break;
+                }
+                inFlight.incrementAndGet();
+                findBatch(batch)
+                        .doFinally(signal -> {
+                            inFlight.decrementAndGet();
+                            drain();
+                        })
+                        .subscribe();
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private List<Lookup> poll() {
+        List<Lookup> batch = new ArrayList<>(Math.min(pendingCount.get(), properties.getMaxBatchSize()));
+        Lookup lookup;
+        while (batch.size() < properties.getMaxBatchSize() && (lookup = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (!lookup.cancelled) {
+                batch.add(lookup);
+            }
+        }
+        return batch;
+    }
+
+    private Mono<Void> findBatch(List<Lookup> batch) {
+        Set<Integer> ids = new HashSet<>();
+        batch.forEach(lookup -> ids.add(lookup.id));
+
+        return Mono.defer(() -> animeRepository.findAllByIdIn(ids).collectMap(Anime::getId))
+                .contextWrite(DatabaseRoute::readOnly)
+                // Frees the slot of a query that hangs; its lookups have timed out by then.
+                .timeout(properties.getTimeout())
+                .doOnNext(animesById -> complete(batch, animesById))
+                .doOnError(error -> batch.forEach(lookup -> lookup.sink.error(error)))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private static void complete(List<Lookup> batch, Map<Integer, Anime> animesById) {
+        batch.forEach(lookup -> lookup.sink.success(animesById.get(lookup.id)));
+    }
+
+    private static final class Lookup {
+
+        private final int id;
+
+        private final MonoSink<Anime> sink;
+
+        private volatile boolean cancelled;
+
+        private Lookup(int id, MonoSink<Anime> sink) {
+            this.id = id;
+            this.sink = sink;
+        }
+
+    }
+
+}
@@ -1,66 +1,340 @@
 package dev.brunocesar.webflux.service;
 
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.config.DatabaseRoute;
+import dev.brunocesar.webflux.config.ReadYourWrites;
 import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeImportSummary;
+import dev.brunocesar.webflux.exception.KnownErrorException;
 import dev.brunocesar.webflux.repository.AnimeRepository;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.netty.util.internal.StringUtil;
-import org.springframework.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AnimeService {
 
+    private static final Logger log = LoggerFactory.getLogger(AnimeService.class);
+
+    private static final String SERVICE_METRIC = "anime.service";
+
+    private static final String BATCH_SIZE_METRIC = "anime.service.batch.size";
+
     private final AnimeRepository animeRepository;
 
-    public AnimeService(AnimeRepository animeRepository) {
+    private final AnimeProperties animeProperties;
+
+    private final AnimeCache animeCache;
+
+    private final AnimeLookupBatcher animeLookupBatcher;
+
+    private final AnimeSuggestionIndex animeSuggestionIndex;
+
+    private final AnimeIdIndex animeIdIndex;
+
+    private final AnimeSnapshot animeSnapshot;
+
+    private final AnimeChangeFeed animeChangeFeed;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final PipelineMetrics.Stage findAllStage;
+
+    private final PipelineMetrics.Stage findPageStage;
+
+    private final PipelineMetrics.Stage findByIdStage;
+
+    private final PipelineMetrics.Stage searchStage;
+
+    private final PipelineMetrics.Stage suggestStage;
+
+    private final PipelineMetrics.Stage saveStage;
+
+    private final PipelineMetrics.Stage updateStage;
+
+    private final PipelineMetrics.Stage deleteStage;
+
+    private final PipelineMetrics.Stage saveAllStage;
+
+    private final PipelineMetrics.Stage importAllStage;
+
+    private final PipelineMetrics.Stage bulkLoadStage;
+
+    private final DistributionSummary saveAllBatchSize;
+
+    private final DistributionSummary importAllChunkSize;
+
+    private final DistributionSummary bulkLoadChunkSize;
+
+    public AnimeService(AnimeRepository animeRepository, AnimeProperties animeProperties,
+                        AnimeCache animeCache, AnimeLookupBatcher animeLookupBatcher,
+                        AnimeSuggestionIndex animeSuggestionIndex, AnimeIdIndex animeIdIndex,
+                        AnimeSnapshot animeSnapshot, AnimeChangeFeed animeChangeFeed,
+                        ReadYourWrites readYourWrites, PipelineMetrics pipelineMetrics) {
         this.animeRepository = animeRepository;
+        this.animeProperties = animeProperties;
+        this.animeCache = animeCache;
+        this.animeLookupBatcher = animeLookupBatcher;
+        this.animeSuggestionIndex = animeSuggestionIndex;
+        this.animeIdIndex = animeIdIndex;
+        this.animeSnapshot = animeSnapshot;
+        this.animeChangeFeed = animeChangeFeed;
+        this.readYourWrites = readYourWrites;
+        this.findAllStage = pipelineMetrics.stage(SERVICE_METRIC, "findAll");
+        this.findPageStage = pipelineMetrics.stage(SERVICE_METRIC, "findPage");
+        this.findByIdStage = pipelineMetrics.stage(SERVICE_METRIC, "findById");
+        this.searchStage = pipelineMetrics.stage(SERVICE_METRIC, "search");
+        this.suggestStage = pipelineMetrics.stage(SERVICE_METRIC, "suggest");
+        this.saveStage = pipelineMetrics.stage(SERVICE_METRIC, "save");
+        this.updateStage = pipelineMetrics.stage(SERVICE_METRIC, "update");
+        this.deleteStage = pipelineMetrics.stage(SERVICE_METRIC, "delete");
+        this.saveAllStage = pipelineMetrics.stage(SERVICE_METRIC, "saveAll");
+        this.importAllStage = pipelineMetrics.stage(SERVICE_METRIC, "importAll");
+        this.bulkLoadStage = pipelineMetrics.stage(SERVICE_METRIC, "bulkLoad");
+        this.saveAllBatchSize = pipelineMetrics.summary(BATCH_SIZE_METRIC, "saveAll");
+        this.importAllChunkSize = pipelineMetrics.summary(BATCH_SIZE_METRIC, "importAll");
+        this.bulkLoadChunkSize = pipelineMetrics.summary(BATCH_SIZE_METRIC, "bulkLoad");
     }
 
     public Flux<Anime> findAll() {
-        return animeRepository.findAll();
+        return findAllAfter(0);
+    }
+
+    public Flux<Anime> findAllAfter(int after) {
+        if (animeSnapshot.isServing()) {
+            return findAllStage.time(animeSnapshot.findAllAfter(after));
+        }
+        int pageSize = animeProperties.getListing().getPageSize();
+        return findAllStage.time(fetchPage(after, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : fetchPage(page.get(page.size() - 1).getId(), pageSize))
+                .flatMapIterable(Function.identity(), 1));
+    }
+
+    public Flux<Anime> findPage(int after, int limit) {
+        if (limit < 1 || limit > animeProperties.getListing().getMaxLimit()) {
+            return findPageStage.time(Flux.error(KnownErrorException.INVALID_LIMIT));
+        }
+        if (animeSnapshot.isServing()) {
+            return findPageStage.time(animeSnapshot.findAllAfter(after).take(limit));
+        }
+        return findPageStage.time(animeRepository.findPageAfter(after, limit)
+                .contextWrite(DatabaseRoute::readOnly));
+    }
+
+    public Flux<Anime> search(String query, Integer limit) {
+        AnimeProperties.Search search = animeProperties.getSearch();
+        String trimmed = query == null ? "" : query.trim();
+        int resultLimit = limit == null ? search.getDefaultLimit() : limit;
+        if (trimmed.length() < search.getMinQueryLength()) {
+            return searchStage.time(Flux.error(KnownErrorException.INVALID_QUERY));
+        }
+        if (resultLimit < 1 || resultLimit > search.getMaxLimit()) {
+            return searchStage.time(Flux.error(KnownErrorException.INVALID_LIMIT));
+        }
+        return searchStage.time(animeRepository.search(trimmed, escapeLikePattern(trimmed), resultLimit)
+                .contextWrite(DatabaseRoute::readOnly));
+    }
+
+    public Flux<Anime> suggest(String prefix, Integer limit) {
+        AnimeProperties.Suggest suggest = animeProperties.getSuggest();
+        int resultLimit = limit == null ? suggest.getDefaultLimit() : limit;
+        if (prefix == null || prefix.isBlank()) {
+            return suggestStage.time(Flux.error(KnownErrorException.INVALID_PREFIX));
+        }
+        if (resultLimit < 1 || resultLimit > suggest.getMaxLimit()) {
+            return suggestStage.time(Flux.error(KnownErrorException.INVALID_LIMIT));
+        }
+        return suggestStage.time(Flux.defer(() -> Flux.fromIterable(animeSuggestionIndex.suggest(prefix, resultLimit))));
+    }
+
+    /**
+     * Changes whenever an anime is created, renamed or deleted; used as the ETag of the full listing so that
+     * an unchanged catalogue is revalidated without reading it.
+     */
+    public Mono<String> findCatalogueVersion() {
+        if (animeSnapshot.isServing()) {
+            return Mono.fromSupplier(animeSnapshot::getCatalogueVersion);
+        }
+        return animeRepository.findCatalogueVersion()
+                .contextWrite(DatabaseRoute::readOnly);
     }
 
     public Mono<Anime> findById(int id) {
-        return animeRepository.findById(id)
-                .switchIfEmpty(monoResponseStatusNotFoundException());
+        if (animeSnapshot.isServing() && id > 0) {
+            return findByIdStage.time(Mono.fromSupplier(() -> animeSnapshot.get(id))
+                    .switchIfEmpty(monoResponseStatusNotFoundException()));
+        }
+        if (!animeIdIndex.mightExist(id)) {
+            return findByIdStage.time(monoResponseStatusNotFoundException());
+        }
+        return findByIdStage.time(animeCache.get(id, this::loadById)
+                .switchIfEmpty(Mono.defer(() -> {
+                    // A replica may not have the row of a write made within the window yet.
+                    if (!readYourWrites.hasRecentWrites()) {
+                        animeIdIndex.recordMiss(id);
+                    }
+                    return monoResponseStatusNotFoundException();
+                })));
     }
 
     public Mono<Anime> save(Anime anime) {
-        return animeRepository.save(anime);
+        // Spring Data updates rather than inserts an entity with a version, and the id comes from the serial.
+        return saveStage.time(animeRepository.save(new Anime(null, anime.getName()))
+                .doOnNext(this::indexSaved));
     }
 
     public Mono<Void> update(Anime anime) {
-        return findById(anime.getId())
-                .flatMap(animeFound -> {
-                    animeFound.setName(anime.getName());
-                    return animeRepository.save(animeFound);
-                })
-                .then();
+        return updateStage.time(animeRepository.updateName(anime.getId(), anime.getName(), anime.getVersion())
+                .switchIfEmpty(monoResponseStatusNotFoundException())
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> KnownErrorException.ANIME_CONFLICT)
+                .doOnNext(animeSuggestionIndex::put)
+                .doOnNext(animeSnapshot::put)
+                .doOnNext(animeChangeFeed::updated)
+                .doOnSuccess(animeSaved -> animeCache.invalidate(anime.getId()))
+                .then());
     }
 
     public Mono<Void> delete(Integer id) {
-        return findById(id)
-                .flatMap(animeRepository::delete);
+        return deleteStage.time(findById(id)
+                .flatMap(animeRepository::delete)
+                .doOnSuccess(deleted -> {
+                    animeCache.invalidate(id);
+                    animeSuggestionIndex.remove(id);
+                    animeIdIndex.remove(id);
+                    animeSnapshot.remove(id);
+                    animeChangeFeed.deleted(id);
+                }));
     }
 
     public <T> Mono<T> monoResponseStatusNotFoundException() {
-        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime not found"));
+        return Mono.error(KnownErrorException.ANIME_NOT_FOUND);
     }
 
     @Transactional
     public Flux<Anime> saveAll(List<Anime> animes) {
-        return animeRepository.saveAll(animes)
-                .doOnNext(this::throwResponseStatusExceptionWhenEmptyName);
+        return saveAllStage.time(Flux.defer(() -> {
+            animes.forEach(this::throwInvalidNameWhenEmptyName);
+            saveAllBatchSize.record(animes.size());
+            List<Anime> saved = new ArrayList<>(animes.size());
+            return Flux.fromIterable(animes)
+                    .buffer(animeProperties.getBatch().getChunkSize())
+                    .concatMap(animeRepository::insertAll)
+                    .doOnNext(saved::add)
+                    // A later chunk can still roll the earlier ones back.
+                    .concatWith(afterCommit(() -> saved.forEach(this::indexSaved)).then(Mono.empty()));
+        }));
+    }
+
+    public Flux<AnimeImportSummary> importAll(Flux<Anime> animes) {
+        return importAllStage.time(importInChunks(animes, animeProperties.getBatch().getChunkSize(),
+                importAllChunkSize, chunk -> animeRepository.insertAll(chunk)
+                        .collectList()
+                        .doOnNext(saved -> saved.forEach(this::indexSaved))
+                        .map(saved -> (long) saved.size())));
+    }
+
+    public Flux<AnimeImportSummary> bulkLoad(Flux<Anime> animes) {
+        return bulkLoadStage.time(importInChunks(animes, animeProperties.getBatch().getBulkChunkSize(),
+                bulkLoadChunkSize, chunk -> animeRepository.bulkInsert(chunk).map(Integer::longValue))
+                // The bulk insert does not return the generated IDs, so the indexes are rebuilt instead.
+                .doOnSubscribe(subscription -> {
+                    animeIdIndex.suspend();
+                    animeSnapshot.suspend();
+                })
+                .doFinally(signal -> {
+                    animeIdIndex.resume();
+                    animeSnapshot.resume();
+                    animeChangeFeed.reset();
+                    // The chunks are not published one by one, so other instances reload once the load ends.
+                    animeRepository.notifyReset()
+                            .subscribe(null, error -> log.warn("Could not publish the end of a bulk load: {}",
+                                    error.getMessage()));
+                })
+                .doOnComplete(animeSuggestionIndex::refresh));
     }
 
-    private void throwResponseStatusExceptionWhenEmptyName(Anime anime) {
-        if (StringUtil.isNullOrEmpty(anime.getName())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Name");
+    private Flux<AnimeImportSummary> importInChunks(Flux<Anime> animes, int chunkSize, DistributionSummary chunkSizes,
+                                                    Function<List<Anime>, Mono<Long>> writer) {
+        return animes
+                .buffer(chunkSize)
+                .doOnNext(chunk -> chunkSizes.record(chunk.size()))
+                .index()
+                // At most one decoded chunk waits while another is written.
+                .concatMap(chunk -> importChunk(chunk.getT1(), chunk.getT2(), writer), 1);
+    }
+
+    private Mono<AnimeImportSummary> importChunk(long index, List<Anime> chunk,
+                                                 Function<List<Anime>, Mono<Long>> writer) {
+        List<Anime> accepted = chunk.stream()
+                .filter(this::hasValidName)
+                .collect(Collectors.toList());
+        long rejected = chunk.size() - accepted.size();
+        return writer.apply(accepted)
+                .map(count -> new AnimeImportSummary(index, count, rejected));
+    }
+
+    private void indexSaved(Anime anime) {
+        animeSuggestionIndex.put(anime);
+        animeIdIndex.put(anime.getId());
+        animeSnapshot.put(anime);
+        animeChangeFeed.created(anime);
+    }
+
+    private static Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(synchronizations -> synchronizations.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(action);
+                    }
+                }))
+                .switchIfEmpty(Mono.fromRunnable(action))
+                .onErrorResume(NoTransactionException.class, error -> Mono.fromRunnable(action))
+                .then();
+    }
+
+    private Mono<Anime> loadById(int id) {
+        // Batches are queried outside of the requests, so they cannot be routed to the primary for a recent writer.
+        return animeProperties.getLookup().isBatchingEnabled() && !readYourWrites.hasRecentWrites()
+                ? animeLookupBatcher.findById(id)
+                : animeRepository.findById(id).contextWrite(DatabaseRoute::readOnly);
+    }
+
+    private Mono<List<Anime>> fetchPage(int after, int limit) {
+        return animeRepository.findPageAfter(after, limit)
+                .collectList()
+                .contextWrite(DatabaseRoute::readOnly);
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private void throwInvalidNameWhenEmptyName(Anime anime) {
+        if (!hasValidName(anime)) {
+            throw KnownErrorException.INVALID_NAME;
         }
     }
+
+    private boolean hasValidName(Anime anime) {
+        return !StringUtil.isNullOrEmpty(anime.getName());
+    }
 }
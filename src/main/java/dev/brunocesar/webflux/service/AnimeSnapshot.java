@@ -0,0 +1,420 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The whole catalogue held in memory, so that {@link AnimeService} serves reads without querying the database
+ * when {@code anime.snapshot.enabled} is set.
+ * <p>
+ * Anime are kept in an open-addressing table keyed by the primitive ID: one {@code int} and one reference per
+ * slot, with no boxed keys or entry objects. Readers never lock; a writer stores the anime before its ID, so a
+ * reader that finds the ID also finds the anime. Deletes leave the ID in its slot until the table is rebuilt.
+ * <p>
+ * Nothing caps the snapshot: it holds every row, and the table doubles as needed. Each anime costs about 110 to
+ * 130 bytes for the {@link Anime}, its boxed ID and version and a short name, plus 13 to 27 bytes of slots at the
+ * 0.6 load factor. {@code anime.snapshot.memory} reports the estimate for the table and for the entries.
+ * <p>
+ * Listings walk the IDs in order up to the highest one, which is cheap because IDs are serial. The snapshot is
+ * loaded in the background, kept current by the writes made through {@link AnimeService} and reloaded every
+ * {@code anime.snapshot.refresh-interval} to pick up rows written by other instances. Until it is loaded, and
+ * while a bulk load whose rows are not returned is running, reads go to the database.
+ */
+@Component
+public class AnimeSnapshot implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AnimeSnapshot.class);
+
+    private static final int EMPTY = 0;
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final float MAX_LOAD = 0.6f;
+
+    // Estimates for a 64-bit JVM with compressed references.
+    private static final int OBJECT_HEADER_BYTES = 12;
+
+    private static final int REFERENCE_BYTES = 4;
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final AnimeRepository animeRepository;
+
+    private final AnimeProperties.Snapshot properties;
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    private final AtomicInteger suspensions = new AtomicInteger();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    private volatile String catalogueVersion = "0.0.0";
+
+    private volatile boolean loaded;
+
+    private long entriesBytes;
+
+    // Writes made while loading, replayed over the loaded table: the anime for a put, an ID-only anime for a remove.
+    private List<Anime> pendingWrites;
+
+    public AnimeSnapshot(AnimeRepository animeRepository, AnimeProperties animeProperties) {
+        this.animeRepository = animeRepository;
+        this.properties = animeProperties.getSnapshot();
+    }
+
+    /**
+     * Whether reads can be served from the snapshot. IDs below 1 are never held, so reads for them still go to
+     * the database.
+     */
+    public boolean isServing() {
+        return properties.isEnabled() && loaded && suspensions.get() == 0;
+    }
+
+    public Anime get(int id) {
+        return table.get(id);
+    }
+
+    public Flux<Anime> findAllAfter(int after) {
+        return Flux.generate(() -> Math.max(after, 0) + 1, (id, sink) -> {
+            Table current = table;
+            int maxId = current.maxId;
+            while (id <= maxId) {
+                Anime anime = current.get(id++);
+                if (anime != null) {
+                    sink.next(anime);
+                    return id;
+                }
+            }
+            sink.complete();
+            return id;
+        });
+    }
+
+    /**
+     * Same format as {@link AnimeRepository#findCatalogueVersion()}, so that ETags do not change when the
+     * snapshot starts or stops serving.
+     */
+    public String getCatalogueVersion() {
+        return catalogueVersion;
+    }
+
+    public synchronized void put(Anime anime) {
+        if (!properties.isEnabled() || anime.getId() == null || anime.getId() <= EMPTY) {
+            return;
+        }
+        publish(write(table, anime.getId(), anime));
+        if (pendingWrites != null) {
+            pendingWrites.add(anime);
+        }
+    }
+
+    public synchronized void remove(int id) {
+        if (!properties.isEnabled() || id <= EMPTY) {
+            return;
+        }
+        publish(write(table, id, null));
+        if (pendingWrites != null) {
+            pendingWrites.add(new Anime(id, null));
+        }
+    }
+
+    /**
+     * Sends reads to the database until {@link #resume()}, for writes that do not return the rows they create.
+     */
+    public void suspend() {
+        suspensions.incrementAndGet();
+    }
+
+    /**
+     * Ends a {@link #suspend()} and reloads the snapshot, which does not serve reads again until that load
+     * completes.
+     */
+    public void resume() {
+        invalidations.incrementAndGet();
+        loaded = false;
+        suspensions.decrementAndGet();
+        refresh();
+    }
+
+    /**
+     * Reloads the snapshot in the background. A refresh requested while one is running is run again once it
+     * completes.
+     */
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        reloadRequested.set(true);
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        reloadRequested.set(false);
+        load()
+                .doFinally(signal -> {
+                    loading.set(false);
+                    if (reloadRequested.get()) {
+                        refresh();
+                    }
+                })
+                .subscribe(size -> log.info("Loaded {} anime into the snapshot", size),
+                        error -> log.warn("Could not load the anime snapshot: {}", error.getMessage()));
+    }
+
+    public Mono<Integer> load() {
+        int pageSize = properties.getPageSize();
+        return Mono.defer(() -> {
+            long generation = startLoad();
+            // Read from the primary: a lagging replica would serve stale rows until the next refresh.
+            return fetchPage(0, pageSize)
+                    .expand(page -> page.size() < pageSize
+                            ? Mono.empty()
+                            : fetchPage(page.get(page.size() - 1).getId(), pageSize))
+                    .flatMapIterable(page -> page, 1)
+                    .collectList()
+                    .map(animes -> install(animes, generation))
+                    .doOnError(error -> abandonLoad());
+        });
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    public long getTableBytes() {
+        return table.bytes();
+    }
+
+    public synchronized long getEntriesBytes() {
+        return entriesBytes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("anime.snapshot.entries", this, AnimeSnapshot::size)
+                .description("Number of anime held in the snapshot")
+                .register(registry);
+        Gauge.builder("anime.snapshot.memory", this, AnimeSnapshot::getTableBytes)
+                .description("Estimated memory held by the snapshot")
+                .baseUnit("bytes")
+                .tag("area", "table")
+                .register(registry);
+        Gauge.builder("anime.snapshot.memory", this, AnimeSnapshot::getEntriesBytes)
+                .description("Estimated memory held by the snapshot")
+                .baseUnit("bytes")
+                .tag("area", "entries")
+                .register(registry);
+    }
+
+    static long estimateBytes(Anime anime) {
+        long bytes = align(OBJECT_HEADER_BYTES + 3L * REFERENCE_BYTES);
+        if (anime.getId() > 127) {
+            bytes += align(OBJECT_HEADER_BYTES + Integer.BYTES);
+        }
+        if (anime.getVersion() != null && (anime.getVersion() > 127 || anime.getVersion() < -128)) {
+            bytes += align(OBJECT_HEADER_BYTES + Long.BYTES);
+        }
+        String name = anime.getName();
+        if (name != null) {
+            int bytesPerChar = 1;
+            for (int i = 0; i < name.length() && bytesPerChar == 1; i++) {
+                if (name.charAt(i) > 0xFF) {
+                    bytesPerChar = 2;
+                }
+            }
+            bytes += align(OBJECT_HEADER_BYTES + REFERENCE_BYTES + 2L * Integer.BYTES)
+                    + align(ARRAY_HEADER_BYTES + (long) name.length() * bytesPerChar);
+        }
+        return bytes;
+    }
+
+    private Mono<List<Anime>> fetchPage(int after, int limit) {
+        return animeRepository.findPageAfter(after, limit).collectList();
+    }
+
+    private synchronized long startLoad() {
+        pendingWrites = new ArrayList<>();
+        return invalidations.get();
+    }
+
+    private synchronized int install(List<Anime> animes, long generation) {
+        var loadedTable = new Table(capacityFor(animes.size()));
+        entriesBytes = 0;
+        for (Anime anime : animes) {
+            if (anime.getId() > EMPTY) {
+                loadedTable = write(loadedTable, anime.getId(), anime);
+            }
+        }
+        for (Anime write : pendingWrites) {
+            loadedTable = write(loadedTable, write.getId(), write.getName() == null ? null : write);
+        }
+        pendingWrites = null;
+        publish(loadedTable);
+        // A bulk load that ended while loading may have written rows this load did not see.
+        loaded = generation == invalidations.get();
+        return table.size;
+    }
+
+    private synchronized void abandonLoad() {
+        pendingWrites = null;
+    }
+
+    private Table write(Table current, int id, Anime anime) {
+        if (anime != null && current.needsRebuild()) {
+            // Readers keep using the current table until the rebuilt one is published.
+            current = current.rebuild(capacityFor(current.size + 1));
+        }
+        Anime previous = current.put(id, anime);
+        if (previous != null) {
+            entriesBytes -= estimateBytes(previous);
+        }
+        if (anime != null) {
+            entriesBytes += estimateBytes(anime);
+        }
+        return current;
+    }
+
+    private void publish(Table current) {
+        table = current;
+        catalogueVersion = current.size + "." + current.maxId + "." + current.versionSum;
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < size + 1) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Linear-probing table; only written under the snapshot's lock.
+     */
+    private static final class Table {
+
+        private final AtomicIntegerArray keys;
+
+        private final AtomicReferenceArray<Anime> values;
+
+        private final int mask;
+
+        private int usedSlots;
+
+        private volatile int size;
+
+        private volatile int maxId;
+
+        private volatile long versionSum;
+
+        private Table(int capacity) {
+            this.keys = new AtomicIntegerArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        private Anime get(int id) {
+            if (id <= EMPTY) {
+                return null;
+            }
+            int slot = slot(id);
+            while (true) {
+                int key = keys.get(slot);
+                if (key == id) {
+                    return values.get(slot);
+                }
+                if (key == EMPTY) {
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private Anime put(int id, Anime anime) {
+            int slot = slot(id);
+            int key;
+            while ((key = keys.get(slot)) != id && key != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            if (key == EMPTY && anime == null) {
+                return null;
+            }
+            Anime previous = values.getAndSet(slot, anime);
+            if (key == EMPTY) {
+                keys.set(slot, id);
+                usedSlots++;
+            }
+            if (previous != null) {
+                size--;
+                versionSum -= version(previous);
+            }
+            if (anime != null) {
+                size++;
+                versionSum += version(anime);
+                maxId = Math.max(maxId, id);
+            } else if (id == maxId) {
+                int candidate = id - 1;
+                while (candidate > EMPTY && get(candidate) == null) {
+                    candidate--;
+                }
+                maxId = candidate;
+            }
+            return previous;
+        }
+
+        private boolean needsRebuild() {
+            return usedSlots + 1 > (mask + 1) * MAX_LOAD;
+        }
+
+        private Table rebuild(int capacity) {
+            var rebuilt = new Table(capacity);
+            for (int slot = 0; slot <= mask; slot++) {
+                Anime anime = values.get(slot);
+                if (anime != null) {
+                    rebuilt.put(keys.get(slot), anime);
+                }
+            }
+            return rebuilt;
+        }
+
+        private long bytes() {
+            return 2L * align(OBJECT_HEADER_BYTES + REFERENCE_BYTES)
+                    + align(ARRAY_HEADER_BYTES + (long) (mask + 1) * Integer.BYTES)
+                    + align(ARRAY_HEADER_BYTES + (long) (mask + 1) * REFERENCE_BYTES);
+        }
+
+        private int slot(int id) {
+            int hash = id * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        private static long version(Anime anime) {
+            return anime.getVersion() == null ? 0 : anime.getVersion();
+        }
+
+    }
+
+}
@@ -0,0 +1,410 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.config.DatabaseRoute;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over anime names for type-ahead suggestions.
+ * <p>
+ * Names are normalised (trimmed, accents stripped, lower case) and kept in sorted parallel arrays, so a lookup is
+ * a binary search followed by a scan of at most {@code limit} entries. The normalised key shares the name's
+ * {@link String} whenever normalising does not change it, which keeps memory close to one string and one int per
+ * anime. Writes go to a small sorted delta that is copied on write and merged into the arrays in the background
+ * once it reaches {@code anime.suggest.compaction-threshold} entries; readers always see an immutable state and
+ * never block.
+ */
+@Component
+public class AnimeSuggestionIndex implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AnimeSuggestionIndex.class);
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final AnimeRepository animeRepository;
+
+    private final AnimeProperties animeProperties;
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private volatile State state = State.EMPTY;
+
+    public AnimeSuggestionIndex(AnimeRepository animeRepository, AnimeProperties animeProperties) {
+        this.animeRepository = animeRepository;
+        this.animeProperties = animeProperties;
+    }
+
+    public List<Anime> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        State current = state;
+        List<Anime> suggestions = new ArrayList<>(Math.min(limit, 16));
+        int index = lowerBound(current.keys, key);
+        Iterator<Map.Entry<Entry, String>> added = current.added
+                .tailMap(new Entry(key, Integer.MIN_VALUE), true).entrySet().iterator();
+        Map.Entry<Entry, String> nextAdded = nextMatching(added, key);
+        while (suggestions.size() < limit) {
+            boolean baseMatches = index < current.keys.length && current.keys[index].startsWith(key);
+            if (baseMatches && current.removed.contains(current.ids[index])) {
+                index++;
+            } else if (baseMatches && (nextAdded == null
+                    || nextAdded.getKey().compareTo(current.keys[index], current.ids[index]) > 0)) {
+                suggestions.add(new Anime(current.ids[index], current.names[index]));
+                index++;
+            } else if (nextAdded != null) {
+                suggestions.add(new Anime(nextAdded.getKey().id, nextAdded.getValue()));
+                nextAdded = nextMatching(added, key);
+            } else {
+                break;
+            }
+        }
+        return suggestions;
+    }
+
+    public synchronized void put(Anime anime) {
+        if (anime.getId() == null || anime.getName() == null) {
+            return;
+        }
+        State current = state;
+        var added = new TreeMap<>(current.added);
+        var addedIds = new HashMap<>(current.addedIds);
+        var entry = new Entry(normalize(anime.getName()), anime.getId());
+        Entry previous = addedIds.put(entry.id, entry);
+        if (previous != null) {
+            added.remove(previous);
+        }
+        added.put(entry, anime.getName());
+        install(current.withDelta(added, addedIds, mask(current, entry.id, loading.get())));
+    }
+
+    public synchronized void remove(int id) {
+        State current = state;
+        var added = current.added;
+        var addedIds = current.addedIds;
+        if (addedIds.containsKey(id)) {
+            added = new TreeMap<>(added);
+            addedIds = new HashMap<>(addedIds);
+            added.remove(addedIds.remove(id));
+        }
+        install(current.withDelta(added, addedIds, mask(current, id, loading.get())));
+    }
+
+    /**
+     * Rebuilds the index from the repository in the background. A refresh requested while one is running is
+     * run again once it completes, so that rows written by a bulk load are not missed.
+     */
+    public void refresh() {
+        reloadRequested.set(true);
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        reloadRequested.set(false);
+        load()
+                .doFinally(signal -> {
+                    loading.set(false);
+                    if (reloadRequested.get()) {
+                        refresh();
+                    }
+                })
+                .subscribe(size -> log.info("Loaded {} anime names into the suggestion index", size),
+                        error -> log.warn("Could not load the suggestion index: {}", error.getMessage()));
+    }
+
+    public Mono<Integer> load() {
+        int pageSize = animeProperties.getListing().getPageSize();
+        return fetchPage(0, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : fetchPage(page.get(page.size() - 1).getId(), pageSize))
+                .flatMapIterable(Function.identity(), 1)
+                .map(anime -> Map.entry(new Entry(normalize(anime.getName()), anime.getId()), anime.getName()))
+                .collectList()
+                .map(this::replaceBase);
+    }
+
+    public int size() {
+        State current = state;
+        return current.keys.length + current.added.size() - current.removed.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("anime.suggest.entries", this, AnimeSuggestionIndex::size)
+                .description("Approximate number of names in the suggestion index")
+                .register(registry);
+        Gauge.builder("anime.suggest.delta", this, index -> index.state.added.size() + index.state.removed.size())
+                .description("Writes not yet merged into the sorted suggestion arrays")
+                .register(registry);
+    }
+
+    static String normalize(String name) {
+        String trimmed = name.trim();
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) > 127) {
+                return COMBINING_MARKS.matcher(Normalizer.normalize(trimmed, Normalizer.Form.NFD)).replaceAll("")
+                        .toLowerCase(Locale.ROOT);
+            }
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private Mono<List<Anime>> fetchPage(int after, int limit) {
+        return animeRepository.findPageAfter(after, limit)
+                .collectList()
+                .contextWrite(DatabaseRoute::readOnly);
+    }
+
+    private synchronized int replaceBase(List<Map.Entry<Entry, String>> loaded) {
+        State current = state;
+        // Writes made while loading stay in the delta and keep masking the rows they replaced.
+        loaded.sort(Map.Entry.comparingByKey());
+        var removed = new HashSet<>(current.removed);
+        removed.addAll(current.addedIds.keySet());
+        install(merge(loaded, current.added, current.addedIds, removed));
+        return loaded.size();
+    }
+
+    private void install(State candidate) {
+        state = candidate;
+        if (candidate.added.size() + candidate.removed.size() >= animeProperties.getSuggest().getCompactionThreshold()
+                && compacting.compareAndSet(false, true)) {
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    compact();
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Merges the delta into new sorted arrays without holding the lock, then carries over the writes made in the
+     * meantime as the delta of the new state.
+     */
+    void compact() {
+        State snapshot = state;
+        State compacted = merged(snapshot);
+        synchronized (this) {
+            State current = state;
+            if (current.keys != snapshot.keys) {
+                return;
+            }
+            var added = new TreeMap<Entry, String>();
+            var addedIds = new HashMap<Integer, Entry>();
+            var removed = new HashSet<Integer>();
+            current.addedIds.forEach((id, entry) -> {
+                if (snapshot.addedIds.get(id) != entry) {
+                    added.put(entry, current.added.get(entry));
+                    addedIds.put(id, entry);
+                    removed.add(id);
+                }
+            });
+            snapshot.addedIds.keySet().stream()
+                    .filter(id -> !current.addedIds.containsKey(id))
+                    .forEach(removed::add);
+            current.removed.stream()
+                    .filter(id -> !snapshot.removed.contains(id))
+                    .forEach(removed::add);
+            state = compacted.withDelta(added, addedIds, Set.copyOf(retainAll(removed, compacted.sortedIds)));
+        }
+    }
+
+    private static State merged(State current) {
+        int size = current.keys.length - current.removed.size() + current.added.size();
+        var keys = new String[size];
+        var ids = new int[size];
+        var names = new String[size];
+        int position = 0;
+        Iterator<Map.Entry<Entry, String>> added = current.added.entrySet().iterator();
+        Map.Entry<Entry, String> nextAdded = added.hasNext() ? added.next() : null;
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.removed.contains(current.ids[i])) {
+                continue;
+            }
+            while (nextAdded != null && nextAdded.getKey().compareTo(current.keys[i], current.ids[i]) < 0) {
+                position = copy(nextAdded, keys, ids, names, position);
+                nextAdded = added.hasNext() ? added.next() : null;
+            }
+            keys[position] = current.keys[i];
+            ids[position] = current.ids[i];
+            names[position++] = current.names[i];
+        }
+        while (nextAdded != null) {
+            position = copy(nextAdded, keys, ids, names, position);
+            nextAdded = added.hasNext() ? added.next() : null;
+        }
+        return new State(keys, ids, names, mergeSortedIds(current), Collections.emptyNavigableMap(), Map.of(),
+                Set.of());
+    }
+
+    private static int copy(Map.Entry<Entry, String> entry, String[] keys, int[] ids, String[] names,
+                            int position) {
+        keys[position] = entry.getKey().key.equals(entry.getValue()) ? entry.getValue() : entry.getKey().key;
+        ids[position] = entry.getKey().id;
+        names[position] = entry.getValue();
+        return position + 1;
+    }
+
+    private static int[] mergeSortedIds(State current) {
+        int[] addedIds = current.addedIds.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        var sortedIds = new int[current.sortedIds.length - current.removed.size() + addedIds.length];
+        int position = 0;
+        int next = 0;
+        for (int id : current.sortedIds) {
+            if (current.removed.contains(id)) {
+                continue;
+            }
+            while (next < addedIds.length && addedIds[next] < id) {
+                sortedIds[position++] = addedIds[next++];
+            }
+            sortedIds[position++] = id;
+        }
+        while (next < addedIds.length) {
+            sortedIds[position++] = addedIds[next++];
+        }
+        return sortedIds;
+    }
+
+    private static State merge(List<Map.Entry<Entry, String>> sorted, NavigableMap<Entry, String> added,
+                               Map<Integer, Entry> addedIds, Set<Integer> removed) {
+        var keys = new String[sorted.size()];
+        var ids = new int[sorted.size()];
+        var names = new String[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            copy(sorted.get(i), keys, ids, names, i);
+        }
+        int[] sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+        return new State(keys, ids, names, sortedIds, added, addedIds, Set.copyOf(retainAll(removed, sortedIds)));
+    }
+
+    private static Set<Integer> retainAll(Set<Integer> removed, int[] sortedIds) {
+        var retained = new HashSet<Integer>();
+        for (Integer id : removed) {
+            if (Arrays.binarySearch(sortedIds, id) >= 0) {
+                retained.add(id);
+            }
+        }
+        return retained;
+    }
+
+    private static int lowerBound(String[] keys, String key) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && keys[index - 1].equals(key)) {
+            index--;
+        }
+        return index;
+    }
+
+    private static Map.Entry<Entry, String> nextMatching(Iterator<Map.Entry<Entry, String>> entries, String key) {
+        if (!entries.hasNext()) {
+            return null;
+        }
+        Map.Entry<Entry, String> entry = entries.next();
+        return entry.getKey().key.startsWith(key) ? entry : null;
+    }
+
+    private static Set<Integer> mask(State current, int id, boolean loading) {
+        // While loading, the ID may be in the base that is about to be installed, so it is masked regardless.
+        if (current.removed.contains(id) || (!loading && Arrays.binarySearch(current.sortedIds, id) < 0)) {
+            return current.removed;
+        }
+        var removed = new HashSet<>(current.removed);
+        removed.add(id);
+        return removed;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+
+        private final String key;
+
+        private final int id;
+
+        private Entry(String key, int id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return compareTo(other.key, other.id);
+        }
+
+        private int compareTo(String otherKey, int otherId) {
+            int byKey = key.compareTo(otherKey);
+            return byKey != 0 ? byKey : Integer.compare(id, otherId);
+        }
+
+    }
+
+    private static final class State {
+
+        private static final State EMPTY = new State(new String[0], new int[0], new String[0], new int[0],
+                Collections.emptyNavigableMap(), Map.of(), Set.of());
+
+        private final String[] keys;
+
+        private final int[] ids;
+
+        private final String[] names;
+
+        private final int[] sortedIds;
+
+        private final NavigableMap<Entry, String> added;
+
+        private final Map<Integer, Entry> addedIds;
+
+        private final Set<Integer> removed;
+
+        private State(String[] keys, int[] ids, String[] names, int[] sortedIds, NavigableMap<Entry, String> added,
+                      Map<Integer, Entry> addedIds, Set<Integer> removed) {
+            this.keys = keys;
+            this.ids = ids;
+            this.names = names;
+            this.sortedIds = sortedIds;
+            this.added = added;
+            this.addedIds = addedIds;
+            this.removed = removed;
+        }
+
+        private State withDelta(NavigableMap<Entry, String> added, Map<Integer, Entry> addedIds,
+                                Set<Integer> removed) {
+            return new State(keys, ids, names, sortedIds, added, addedIds, removed);
+        }
+
+    }
+
+}
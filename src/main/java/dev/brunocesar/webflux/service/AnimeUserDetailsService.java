@@ -1,5 +1,6 @@
 package dev.brunocesar.webflux.service;
 
+import dev.brunocesar.webflux.config.DatabaseRoute;
 import dev.brunocesar.webflux.repository.UserRepository;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,14 +12,22 @@ public class AnimeUserDetailsService implements ReactiveUserDetailsService {
 
     private final UserRepository userRepository;
 
-    public AnimeUserDetailsService(UserRepository userRepository) {
+    private final UserCredentialsCache userCredentialsCache;
+
+    private final PipelineMetrics.Stage findByUsernameStage;
+
+    public AnimeUserDetailsService(UserRepository userRepository, UserCredentialsCache userCredentialsCache,
+                                   PipelineMetrics pipelineMetrics) {
         this.userRepository = userRepository;
+        this.userCredentialsCache = userCredentialsCache;
+        this.findByUsernameStage = pipelineMetrics.stage("anime.security.users", "findByUsername");
     }
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .cast(UserDetails.class);
+        return findByUsernameStage.time(userCredentialsCache.getUser(username, key -> userRepository.findByUsername(key)
+                .cast(UserDetails.class)
+                .contextWrite(DatabaseRoute::readOnly)));
     }
     
 }
@@ -0,0 +1,84 @@
+package dev.brunocesar.webflux.service;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the reactive stages of the anime pipeline. A stage is timed from subscription until it
+ * completes, errors or is cancelled, and each of those outcomes is recorded under its own tag.
+ */
+@Component
+public class PipelineMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Stage stage(String name, String operation, String... tags) {
+        return new Stage(meterRegistry, name, operation, tags);
+    }
+
+    public DistributionSummary summary(String name, String operation) {
+        return DistributionSummary.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public static final class Stage {
+
+        private final Clock clock;
+
+        private final Timer success;
+
+        private final Timer error;
+
+        private final Timer cancelled;
+
+        private Stage(MeterRegistry meterRegistry, String name, String operation, String... tags) {
+            this.clock = meterRegistry.config().clock();
+            this.success = timer(meterRegistry, name, operation, "success", tags);
+            this.error = timer(meterRegistry, name, operation, "error", tags);
+            this.cancelled = timer(meterRegistry, name, operation, "cancelled", tags);
+        }
+
+        public <T> Mono<T> time(Mono<T> mono) {
+            return Mono.defer(() -> {
+                long start = clock.monotonicTime();
+                return mono.doFinally(signal -> record(signal, start));
+            });
+        }
+
+        public <T> Flux<T> time(Flux<T> flux) {
+            return Flux.defer(() -> {
+                long start = clock.monotonicTime();
+                return flux.doFinally(signal -> record(signal, start));
+            });
+        }
+
+        private void record(SignalType signal, long start) {
+            Timer timer = signal == SignalType.ON_COMPLETE ? success : signal == SignalType.ON_ERROR ? error : cancelled;
+            timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String name, String operation, String outcome,
+                                   String... tags) {
+            return Timer.builder(name)
+                    .tags(tags)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
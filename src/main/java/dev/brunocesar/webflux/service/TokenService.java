@@ -0,0 +1,112 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.AuthToken;
+import dev.brunocesar.webflux.domain.Authorities;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+@Service
+public class TokenService {
+
+    private static final String TOKEN_TYPE = "Bearer";
+
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final boolean enabled;
+
+    private final Duration ttl;
+
+    private final SecretKeySpec signingKey;
+
+    public TokenService(AnimeProperties animeProperties) {
+        AnimeProperties.Security.Token properties = animeProperties.getSecurity().getToken();
+        this.enabled = properties.isEnabled();
+        this.ttl = properties.getTtl();
+        this.signingKey = new SecretKeySpec(signingKey(properties.getSecret()), SIGNATURE_ALGORITHM);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AuthToken issue(Authentication authentication) {
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        String authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = authentication.getName() + '\n' + authorities + '\n' + expiresAt;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        String token = ENCODER.encodeToString(payloadBytes) + '.' + ENCODER.encodeToString(sign(payloadBytes));
+        return new AuthToken(token, TOKEN_TYPE, ttl.getSeconds());
+    }
+
+    public Mono<Authentication> verify(String token) {
+        return Mono.fromCallable(() -> authenticationOf(token));
+    }
+
+    private Authentication authenticationOf(String token) {
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            throw new BadCredentialsException("Invalid Token");
+        }
+
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, separator));
+            signature = DECODER.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid Token", e);
+        }
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            throw new BadCredentialsException("Invalid Token");
+        }
+
+        String[] claims = new String(payloadBytes, StandardCharsets.UTF_8).split("\n", 3);
+        if (claims.length != 3 || Instant.now().getEpochSecond() >= Long.parseLong(claims[2])) {
+            throw new BadCredentialsException("Expired Token");
+        }
+
+        return new UsernamePasswordAuthenticationToken(claims[0], null, Authorities.parse(claims[1]));
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign token", e);
+        }
+    }
+
+    private static byte[] signingKey(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+}
@@ -0,0 +1,109 @@
+package dev.brunocesar.webflux.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.brunocesar.webflux.config.AnimeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.function.Function;
+
+@Component
+public class UserCredentialsCache implements MeterBinder {
+
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+
+    private final SecretKeySpec digestKey;
+
+    private final AsyncCache<String, UserDetails> users;
+
+    private final Cache<String, Authentication> authentications;
+
+    public UserCredentialsCache(AnimeProperties animeProperties) {
+        AnimeProperties.Security.CredentialsCache properties = animeProperties.getSecurity().getCredentialsCache();
+        this.enabled = properties.isEnabled();
+        this.digestKey = new SecretKeySpec(randomKey(), DIGEST_ALGORITHM);
+        this.users = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .buildAsync();
+        this.authentications = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    public Mono<UserDetails> getUser(String username, Function<String, Mono<UserDetails>> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        return Mono.fromFuture(() -> users.get(username, (key, executor) -> loader.apply(key).toFuture()).copy());
+    }
+
+    public Mono<Authentication> getAuthentication(String username, String password,
+                                                  Function<String, Mono<Authentication>> authenticator) {
+        if (!enabled) {
+            return authenticator.apply(username);
+        }
+        return Mono.defer(() -> {
+            String key = credentialsDigest(username, password);
+            Authentication authentication = authentications.getIfPresent(key);
+            if (authentication != null) {
+                return Mono.just(authentication);
+            }
+            return authenticator.apply(username)
+                    .doOnNext(authenticated -> authentications.put(key, authenticated));
+        });
+    }
+
+    public void invalidate(String username) {
+        users.synchronous().invalidate(username);
+        authentications.asMap().values().removeIf(authentication -> username.equals(authentication.getName()));
+    }
+
+    public void invalidateAll() {
+        users.synchronous().invalidateAll();
+        authentications.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "credentials.users");
+        CaffeineCacheMetrics.monitor(registry, authentications, "credentials.authentications");
+    }
+
+    private String credentialsDigest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to digest credentials", e);
+        }
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+}
@@ -0,0 +1,49 @@
+CREATE TABLE IF NOT EXISTS anime (id SERIAL PRIMARY KEY, name VARCHAR(255) NOT NULL);
+
+ALTER TABLE anime ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS anime_name_trgm_idx ON anime USING GIN (name gin_trgm_ops);
+
+CREATE OR REPLACE FUNCTION anime_notify_change() RETURNS trigger LANGUAGE plpgsql AS '
+DECLARE
+    changed_rows BIGINT;
+BEGIN
+    -- Bulk loads publish nothing per chunk and a single reset once they end.
+    IF current_setting(''anime.notify_suppress'', true) = ''on'' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = ''DELETE'' THEN
+        SELECT COUNT(*) INTO changed_rows FROM old_rows;
+    ELSE
+        SELECT COUNT(*) INTO changed_rows FROM new_rows;
+    END IF;
+    -- A statement that changes more rows than the cap publishes a reset instead of one change per row.
+    IF changed_rows > COALESCE(NULLIF(current_setting(''anime.notify_max_rows'', true), '''')::BIGINT, 1000) THEN
+        PERFORM pg_notify(''anime_changes'', json_build_object(''type'', ''RESET'')::text);
+    ELSIF TG_OP = ''DELETE'' THEN
+        PERFORM pg_notify(''anime_changes'', json_build_object(''type'', TG_OP, ''id'', id)::text) FROM old_rows;
+    ELSE
+        PERFORM pg_notify(''anime_changes'',
+                json_build_object(''type'', TG_OP, ''id'', id, ''name'', name, ''version'', version)::text)
+            FROM new_rows;
+    END IF;
+    RETURN NULL;
+END';
+
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgrelid = ''anime''::regclass AND tgname = ''anime_notify_insert'') THEN
+        CREATE TRIGGER anime_notify_insert AFTER INSERT ON anime REFERENCING NEW TABLE AS new_rows
+            FOR EACH STATEMENT EXECUTE FUNCTION anime_notify_change();
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgrelid = ''anime''::regclass AND tgname = ''anime_notify_update'') THEN
+        CREATE TRIGGER anime_notify_update AFTER UPDATE ON anime REFERENCING NEW TABLE AS new_rows
+            FOR EACH STATEMENT EXECUTE FUNCTION anime_notify_change();
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgrelid = ''anime''::regclass AND tgname = ''anime_notify_delete'') THEN
+        CREATE TRIGGER anime_notify_delete AFTER DELETE ON anime REFERENCING OLD TABLE AS old_rows
+            FOR EACH STATEMENT EXECUTE FUNCTION anime_notify_change();
+    END IF;
+END';
@@ -0,0 +1,94 @@
+package dev.brunocesar.webflux.config;
+
+import dev.brunocesar.webflux.domain.User;
+import dev.brunocesar.webflux.service.UserCredentialsCache;
+import dev.brunocesar.webflux.util.UserCreator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class CachingReactiveAuthenticationManagerTest {
+
+    @Mock
+    private ReactiveAuthenticationManager delegate;
+
+    private UserCredentialsCache userCredentialsCache;
+
+    private CachingReactiveAuthenticationManager authenticationManager;
+
+    private final User user = new UserCreator().createUser();
+
+    private final Authentication authenticated =
+            new UsernamePasswordAuthenticationToken(user, user.getPassword(), user.getAuthorities());
+
+    @BeforeEach
+    public void beforeEach() {
+        userCredentialsCache = new UserCredentialsCache(new AnimeProperties());
+        authenticationManager = new CachingReactiveAuthenticationManager(delegate, userCredentialsCache);
+    }
+
+    @Test
+    @DisplayName("authenticate verifies the credentials once and serves repeated calls from the cache")
+    public void authenticate_ReturnCachedAuthentication_WhenCredentialsAreRepeated() {
+
+        when(delegate.authenticate(any())).thenReturn(Mono.just(authenticated));
+
+        StepVerifier.create(authenticationManager.authenticate(credentials(UserCreator.getUserPassword()))
+                        .then(authenticationManager.authenticate(credentials(UserCreator.getUserPassword()))))
+                .expectSubscription()
+                .expectNext(authenticated)
+                .verifyComplete();
+
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("authenticate does not reuse a cached authentication for a different password")
+    public void authenticate_DelegatesVerification_WhenPasswordDiffers() {
+
+        when(delegate.authenticate(any()))
+                .thenReturn(Mono.just(authenticated), Mono.error(new BadCredentialsException("Invalid Credentials")));
+
+        StepVerifier.create(authenticationManager.authenticate(credentials(UserCreator.getUserPassword()))
+                        .then(authenticationManager.authenticate(credentials("wrong"))))
+                .expectSubscription()
+                .expectError(BadCredentialsException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("authenticate verifies the credentials again after the user is invalidated")
+    public void authenticate_DelegatesVerification_WhenUserIsInvalidated() {
+
+        when(delegate.authenticate(any())).thenReturn(Mono.just(authenticated));
+
+        StepVerifier.create(authenticationManager.authenticate(credentials(UserCreator.getUserPassword()))
+                        .doOnNext(authentication -> userCredentialsCache.invalidate(user.getUsername()))
+                        .then(authenticationManager.authenticate(credentials(UserCreator.getUserPassword()))))
+                .expectSubscription()
+                .expectNext(authenticated)
+                .verifyComplete();
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    private Authentication credentials(String password) {
+        return new UsernamePasswordAuthenticationToken(user.getUsername(), password);
+    }
+
+}
@@ -0,0 +1,89 @@
+package dev.brunocesar.webflux.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class ConnectionPoolWarmUpTest {
+
+    @Mock
+    private ObjectProvider<ConnectionFactory> connectionFactories;
+
+    @Mock
+    private ConnectionPool connectionPool;
+
+    private final AnimeProperties animeProperties = new AnimeProperties();
+
+    private ConnectionPoolWarmUp connectionPoolWarmUp;
+
+    @BeforeEach
+    public void beforeEach() {
+        when(connectionFactories.orderedStream()).thenAnswer(invocation -> Stream.of(connectionPool));
+        connectionPoolWarmUp = new ConnectionPoolWarmUp(connectionFactories, animeProperties);
+    }
+
+    @Test
+    @DisplayName("run warms up the connection pool when warm up is enabled")
+    public void run_WarmUpConnectionPool_WhenWarmUpIsEnabled() {
+        when(connectionPool.warmup()).thenReturn(Mono.just(10));
+
+        connectionPoolWarmUp.run(new DefaultApplicationArguments());
+
+        verify(connectionPool).warmup();
+    }
+
+    @Test
+    @DisplayName("run warms up the primary and replica pools behind a routing connection factory")
+    public void run_WarmUpEveryPool_WhenConnectionFactoryIsRouting() {
+        var replica = mock(ConnectionPool.class);
+        when(connectionPool.warmup()).thenReturn(Mono.just(10));
+        when(replica.warmup()).thenReturn(Mono.just(10));
+        var routingConnectionFactory = new RoutingConnectionFactory(connectionPool,
+                new ReplicaConnectionFactory(List.of(replica), ReplicaConnectionFactory.Balancing.ROUND_ROBIN),
+                new ReadYourWrites(animeProperties));
+        when(connectionFactories.orderedStream()).thenAnswer(invocation -> Stream.of(routingConnectionFactory));
+
+        connectionPoolWarmUp.run(new DefaultApplicationArguments());
+
+        verify(connectionPool).warmup();
+        verify(replica).warmup();
+    }
+
+    @Test
+    @DisplayName("run does not touch the connection pool when warm up is disabled")
+    public void run_DoNothing_WhenWarmUpIsDisabled() {
+        animeProperties.getPool().setWarmUp(false);
+
+        connectionPoolWarmUp.run(new DefaultApplicationArguments());
+
+        verify(connectionPool, never()).warmup();
+    }
+
+    @Test
+    @DisplayName("run does not fail the startup when the database is not reachable")
+    public void run_DoNotThrow_WhenWarmUpFails() {
+        when(connectionPool.warmup()).thenReturn(Mono.error(new IllegalStateException("Connection refused")));
+
+        assertThatCode(() -> connectionPoolWarmUp.run(new DefaultApplicationArguments()))
+                .doesNotThrowAnyException();
+    }
+
+}
@@ -0,0 +1,68 @@
+package dev.brunocesar.webflux.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class ReplicaConnectionFactoryTest {
+
+    @Test
+    @DisplayName("select cycles through the replicas when balancing is round-robin")
+    public void select_CycleThroughReplicas_WhenBalancingIsRoundRobin() {
+        var first = replica(0, 0);
+        var second = replica(0, 0);
+        var third = replica(0, 0);
+        var replicaConnectionFactory = new ReplicaConnectionFactory(List.of(first, second, third),
+                ReplicaConnectionFactory.Balancing.ROUND_ROBIN);
+
+        assertThat(List.of(replicaConnectionFactory.select(), replicaConnectionFactory.select(),
+                replicaConnectionFactory.select(), replicaConnectionFactory.select()))
+                .containsExactly(first, second, third, first);
+    }
+
+    @Test
+    @DisplayName("select picks the replica with the fewest pending then acquired connections when balancing is least-pending")
+    public void select_PickLeastLoadedReplica_WhenBalancingIsLeastPending() {
+        var waiting = replica(2, 0);
+        var busy = replica(0, 5);
+        var idle = replica(0, 1);
+        var replicaConnectionFactory = new ReplicaConnectionFactory(List.of(waiting, busy, idle),
+                ReplicaConnectionFactory.Balancing.LEAST_PENDING);
+
+        assertThat(List.of(replicaConnectionFactory.select(), replicaConnectionFactory.select()))
+                .containsExactly(idle, idle);
+    }
+
+    @Test
+    @DisplayName("select spreads equally loaded replicas round-robin when balancing is least-pending")
+    public void select_SpreadTies_WhenBalancingIsLeastPending() {
+        var first = replica(0, 1);
+        var second = replica(0, 1);
+        var replicaConnectionFactory = new ReplicaConnectionFactory(List.of(first, second),
+                ReplicaConnectionFactory.Balancing.LEAST_PENDING);
+
+        assertThat(List.of(replicaConnectionFactory.select(), replicaConnectionFactory.select()))
+                .containsExactly(first, second);
+    }
+
+    private static ConnectionPool replica(int pending, int acquired) {
+        var metrics = mock(PoolMetrics.class);
+        when(metrics.pendingAcquireSize()).thenReturn(pending);
+        when(metrics.acquiredSize()).thenReturn(acquired);
+        var replica = mock(ConnectionPool.class);
+        when(replica.getMetrics()).thenReturn(Optional.of(metrics));
+        return replica;
+    }
+
+}
@@ -0,0 +1,135 @@
+package dev.brunocesar.webflux.config;
+
+import dev.brunocesar.webflux.domain.User;
+import dev.brunocesar.webflux.util.UserCreator;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class RoutingConnectionFactoryTest {
+
+    @Mock
+    private ConnectionPool primary;
+
+    @Mock
+    private ConnectionPool replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private final User admin = new UserCreator().createAdmin();
+
+    private final User user = new UserCreator().createUser();
+
+    @Test
+    @DisplayName("create returns a primary connection when the query is not read-only")
+    public void create_ReturnPrimaryConnection_WhenQueryIsNotReadOnly() {
+        var routingConnectionFactory = routingConnectionFactory(Duration.ofSeconds(5));
+
+        StepVerifier.create(routingConnectionFactory.create())
+                .expectNext(primaryConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("create returns a replica connection when the query is read-only")
+    public void create_ReturnReplicaConnection_WhenQueryIsReadOnly() {
+        var routingConnectionFactory = routingConnectionFactory(Duration.ofSeconds(5));
+
+        StepVerifier.create(routingConnectionFactory.create().contextWrite(DatabaseRoute::readOnly))
+                .expectNext(replicaConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("create returns a primary connection for reads right after an authenticated write by the same user")
+    public void create_ReturnPrimaryConnectionForReads_WhenWithinReadYourWritesWindow() {
+        var routingConnectionFactory = routingConnectionFactory(Duration.ofSeconds(5));
+
+        StepVerifier.create(routingConnectionFactory.create()
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication(admin)))
+                        .then(routingConnectionFactory.create()
+                                .contextWrite(DatabaseRoute::readOnly)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication(admin)))))
+                .expectNext(primaryConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("create returns a replica connection for reads of another user right after an authenticated write")
+    public void create_ReturnReplicaConnectionForReads_WhenAnotherUserWrote() {
+        var routingConnectionFactory = routingConnectionFactory(Duration.ofSeconds(5));
+
+        StepVerifier.create(routingConnectionFactory.create()
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication(admin)))
+                        .then(routingConnectionFactory.create()
+                                .contextWrite(DatabaseRoute::readOnly)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication(user)))))
+                .expectNext(replicaConnection)
+                .verifyComplete();
+
+        StepVerifier.create(routingConnectionFactory.create().contextWrite(DatabaseRoute::readOnly))
+                .expectNext(replicaConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("create returns a replica connection for reads after a write outside of a request")
+    public void create_ReturnReplicaConnectionForReads_WhenWriteWasNotAuthenticated() {
+        var routingConnectionFactory = routingConnectionFactory(Duration.ofSeconds(5));
+
+        StepVerifier.create(routingConnectionFactory.create()
+                        .then(routingConnectionFactory.create().contextWrite(DatabaseRoute::readOnly)))
+                .expectNext(replicaConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("create returns a replica connection for reads after a write when read-your-writes is disabled")
+    public void create_ReturnReplicaConnectionForReads_WhenReadYourWritesIsDisabled() {
+        var routingConnectionFactory = routingConnectionFactory(Duration.ZERO);
+
+        StepVerifier.create(routingConnectionFactory.create()
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication(admin)))
+                        .then(routingConnectionFactory.create()
+                                .contextWrite(DatabaseRoute::readOnly)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication(admin)))))
+                .expectNext(replicaConnection)
+                .verifyComplete();
+    }
+
+    private RoutingConnectionFactory routingConnectionFactory(Duration readYourWritesWindow) {
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+        when(replica.create()).thenReturn(Mono.just(replicaConnection));
+        var animeProperties = new AnimeProperties();
+        animeProperties.getRouting().setEnabled(true);
+        animeProperties.getRouting().setReadYourWritesWindow(readYourWritesWindow);
+        var routingConnectionFactory = new RoutingConnectionFactory(primary,
+                new ReplicaConnectionFactory(List.of(replica), ReplicaConnectionFactory.Balancing.ROUND_ROBIN),
+                new ReadYourWrites(animeProperties));
+        routingConnectionFactory.afterPropertiesSet();
+        return routingConnectionFactory;
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(User user) {
+        return new UsernamePasswordAuthenticationToken(user, user.getPassword(), user.getAuthorities());
+    }
+
+}
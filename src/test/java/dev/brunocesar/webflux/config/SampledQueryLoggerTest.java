@@ -0,0 +1,78 @@
+package dev.brunocesar.webflux.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class SampledQueryLoggerTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SampledQueryLogger.LOGGER_NAME);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    public void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAppender(appender);
+        appender.stop();
+    }
+
+    @Test
+    @DisplayName("afterQuery logs a warning when the query is slower than the threshold")
+    public void afterQuery_LogWarning_WhenQueryIsSlow() {
+        new SampledQueryLogger(Duration.ofMillis(100), 0).afterQuery(execution(Duration.ofMillis(150)));
+
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getLevel()).isEqualTo(Level.WARN);
+        assertThat(appender.list.get(0).getFormattedMessage()).contains("150 ms", "SELECT * FROM anime");
+    }
+
+    @Test
+    @DisplayName("afterQuery logs nothing when the query is fast and sampling is disabled")
+    public void afterQuery_LogNothing_WhenQueryIsFastAndSamplingIsDisabled() {
+        new SampledQueryLogger(Duration.ofMillis(100), 0).afterQuery(execution(Duration.ofMillis(5)));
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    @DisplayName("afterQuery logs fast queries at info when every query is sampled")
+    public void afterQuery_LogInfo_WhenQueryIsSampled() {
+        new SampledQueryLogger(Duration.ofMillis(100), 1).afterQuery(execution(Duration.ofMillis(5)));
+
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getLevel()).isEqualTo(Level.INFO);
+    }
+
+    private static QueryExecutionInfo execution(Duration duration) {
+        var execution = mock(QueryExecutionInfo.class);
+        when(execution.getExecuteDuration()).thenReturn(duration);
+        when(execution.getQueries()).thenReturn(List.of(new QueryInfo("SELECT * FROM anime")));
+        when(execution.isSuccess()).thenReturn(true);
+        return execution;
+    }
+
+}
@@ -1,8 +1,16 @@
 package dev.brunocesar.webflux.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.brunocesar.webflux.config.AnimeProperties;
 import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeCacheStats;
+import dev.brunocesar.webflux.domain.AnimeChange;
+import dev.brunocesar.webflux.domain.AnimeImportSummary;
+import dev.brunocesar.webflux.service.AnimeCache;
+import dev.brunocesar.webflux.service.AnimeChangeFeed;
 import dev.brunocesar.webflux.service.AnimeService;
 import dev.brunocesar.webflux.util.AnimeCreator;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,6 +18,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,6 +31,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -30,6 +43,18 @@ class AnimeControllerTest {
     @Mock
     private AnimeService animeService;
 
+    @Mock
+    private AnimeCache animeCache;
+
+    @Mock
+    private AnimeChangeFeed animeChangeFeed;
+
+    @Spy
+    private AnimeProperties animeProperties = new AnimeProperties();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private final Anime anime = AnimeCreator.createValidAnime();
 
     @BeforeEach
@@ -37,6 +62,21 @@ class AnimeControllerTest {
         BDDMockito.when(animeService.findAll())
                 .thenReturn(Flux.just(anime));
 
+        BDDMockito.when(animeService.findCatalogueVersion())
+                .thenReturn(Mono.just("1.1.0"));
+
+        BDDMockito.when(animeService.findPage(anyInt(), anyInt()))
+                .thenReturn(Flux.just(anime));
+
+        BDDMockito.when(animeService.findAllAfter(anyInt()))
+                .thenReturn(Flux.just(anime, AnimeCreator.createValidUpdatedAnime()));
+
+        BDDMockito.when(animeService.search(anyString(), any()))
+                .thenReturn(Flux.just(anime));
+
+        BDDMockito.when(animeService.suggest(anyString(), any()))
+                .thenReturn(Flux.just(anime));
+
         BDDMockito.when(animeService.findById(anyInt()))
                 .thenReturn(Mono.just(anime));
 
@@ -51,20 +91,118 @@ class AnimeControllerTest {
     }
 
     @Test
-    @DisplayName("listAll returns a flux of anime")
+    @DisplayName("listAll returns a flux of anime tagged with the catalogue version")
     public void listAll_ReturnFluxOfAnime_WhenSuccessful() {
         StepVerifier.create(animeController.listAll())
+                .expectSubscription()
+                .assertNext(response -> Assertions.assertEquals("\"1.1.0\"", response.getHeaders().getETag()))
+                .verifyComplete();
+
+        StepVerifier.create(animeController.listAll().flatMapMany(HttpEntity::getBody))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("listPage returns a flux of anime")
+    public void listPage_ReturnFluxOfAnime_WhenSuccessful() {
+        StepVerifier.create(animeController.listPage(0, 10))
                 .expectSubscription()
                 .expectNext(anime)
                 .verifyComplete();
     }
 
     @Test
-    @DisplayName("findById returns Mono with anime when exists")
+    @DisplayName("streamNdjson writes one json line per anime")
+    public void streamNdjson_WritesOneLinePerAnime_WhenSuccessful() {
+        var response = new MockServerHttpResponse();
+
+        StepVerifier.create(animeController.streamNdjson(0, response))
+                .expectSubscription()
+                .verifyComplete();
+
+        StepVerifier.create(response.getBodyAsString())
+                .expectNext("{\"id\":1,\"name\":\"Fullmetal\"}\n{\"id\":1,\"name\":\"Fullmetal 2\"}\n")
+                .verifyComplete();
+        Assertions.assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    @DisplayName("streamEvents writes one server-sent event per anime")
+    public void streamEvents_WritesOneEventPerAnime_WhenSuccessful() {
+        animeProperties.getListing().setFlushBatchSize(2);
+        var response = new MockServerHttpResponse();
+
+        StepVerifier.create(animeController.streamEvents(0, response))
+                .expectSubscription()
+                .verifyComplete();
+
+        StepVerifier.create(response.getBodyAsString())
+                .expectNext("id:1\ndata:{\"id\":1,\"name\":\"Fullmetal\"}\n\n" +
+                        "id:1\ndata:{\"id\":1,\"name\":\"Fullmetal 2\"}\n\n")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("changes returns one server-sent event per change, resuming after the Last-Event-ID header")
+    public void changes_ReturnOneEventPerChange_WhenResumedFromLastEventId() {
+        var change = new AnimeChange(AnimeChange.Type.UPDATE, 1, "Fullmetal", 2L).withSequence(6);
+
+        when(animeChangeFeed.changes("epoch-5")).thenReturn(Flux.just(change));
+        when(animeChangeFeed.eventId(change)).thenReturn("epoch-6");
+
+        StepVerifier.create(animeController.changes("epoch-2", "epoch-5"))
+                .expectSubscription()
+                .assertNext(event -> {
+                    Assertions.assertEquals("epoch-6", event.id());
+                    Assertions.assertEquals("update", event.event());
+                    Assertions.assertEquals(change, event.data());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    @DisplayName("cacheStats returns the anime cache counters")
+    public void cacheStats_ReturnCacheCounters_WhenSuccessful() {
+        var stats = new AnimeCacheStats(1, 2, 1, 0);
+
+        when(animeCache.stats()).thenReturn(stats);
+
+        StepVerifier.create(animeController.cacheStats())
+                .expectSubscription()
+                .expectNext(stats)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("search returns Flux of anime matching the query")
+    public void search_ReturnFluxOfAnime_WhenSuccessful() {
+        StepVerifier.create(animeController.search("naruto", null))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("suggest returns Flux of anime whose name starts with the prefix")
+    public void suggest_ReturnFluxOfAnime_WhenSuccessful() {
+        StepVerifier.create(animeController.suggest("na", null))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findById returns Mono with anime tagged with its version when exists")
     public void findById_ReturnMonoAnime_WhenSuccessful() {
         StepVerifier.create(animeController.findById(1))
                 .expectSubscription()
-                .expectNext(anime)
+                .assertNext(response -> {
+                    Assertions.assertEquals(anime, response.getBody());
+                    Assertions.assertEquals("\"1.0\"", response.getHeaders().getETag());
+                })
                 .verifyComplete();
     }
 
@@ -94,6 +232,34 @@ class AnimeControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("importNdjson returns a summary per imported chunk")
+    public void importNdjson_ReturnSummaryPerChunk_WhenSuccessful() {
+        var animes = Flux.just(AnimeCreator.createAnimeToBeSaved());
+        var summary = new AnimeImportSummary(0, 1, 0);
+
+        when(animeService.importAll(animes)).thenReturn(Flux.just(summary));
+
+        StepVerifier.create(animeController.importNdjson(animes))
+                .expectSubscription()
+                .expectNext(summary)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("bulkLoad returns a summary per loaded chunk")
+    public void bulkLoad_ReturnSummaryPerChunk_WhenSuccessful() {
+        var animes = Flux.just(AnimeCreator.createAnimeToBeSaved());
+        var summary = new AnimeImportSummary(0, 1, 0);
+
+        when(animeService.bulkLoad(animes)).thenReturn(Flux.just(summary));
+
+        StepVerifier.create(animeController.bulkLoad(animes))
+                .expectSubscription()
+                .expectNext(summary)
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("delete removes the anime when successful")
     public void delete_RemovesAnime_WhenSuccessful() {
@@ -0,0 +1,57 @@
+package dev.brunocesar.webflux.domain;
+
+import dev.brunocesar.webflux.util.UserCreator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserTest {
+
+    private final UserCreator userCreator = new UserCreator();
+
+    @Test
+    @DisplayName("getAuthorities returns the same shared authority set for users with the same authorities")
+    public void getAuthorities_ReturnSharedSet_WhenAuthoritiesAreEqual() {
+        var admin = userCreator.createAdmin();
+        var otherAdmin = userCreator.createAdmin();
+
+        assertThat(admin.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN", "ROLE_USER");
+        assertThat(admin.getAuthorities().iterator().next()).isSameAs(Authorities.ROLE_ADMIN);
+        assertThat(admin.getAuthorities()).isSameAs(admin.getAuthorities());
+        assertThat(admin.getAuthorities()).isSameAs(otherAdmin.getAuthorities());
+    }
+
+    @Test
+    @DisplayName("getAuthorities parses authorities the application does not grant into a set of their own")
+    public void getAuthorities_ReturnParsedSet_WhenAuthoritiesAreUnknown() {
+        var user = userCreator.createUser();
+        user.setAuthorities("ROLE_USER, ROLE_AUDITOR");
+        var otherUser = userCreator.createUser();
+        otherUser.setAuthorities("ROLE_USER, ROLE_AUDITOR");
+
+        assertThat(user.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_AUDITOR");
+        assertThat(user.getAuthorities().iterator().next()).isSameAs(Authorities.ROLE_USER);
+        assertThat(user.getAuthorities()).isSameAs(user.getAuthorities());
+        assertThat(user.getAuthorities()).isNotSameAs(otherUser.getAuthorities());
+    }
+
+    @Test
+    @DisplayName("setAuthorities replaces the previously parsed authorities")
+    public void setAuthorities_ReplaceParsedAuthorities_WhenChanged() {
+        var user = userCreator.createUser();
+        user.getAuthorities();
+
+        user.setAuthorities("ROLE_ADMIN");
+
+        assertThat(user.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+}
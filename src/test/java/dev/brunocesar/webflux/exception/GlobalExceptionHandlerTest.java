@@ -0,0 +1,134 @@
+package dev.brunocesar.webflux.exception;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.boot.autoconfigure.web.reactive.WebFluxAutoConfiguration;
+import org.springframework.boot.web.reactive.context.AnnotationConfigReactiveWebApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@ExtendWith(SpringExtension.class)
+public class GlobalExceptionHandlerTest {
+
+    private AnnotationConfigReactiveWebApplicationContext context;
+
+    private ObjectMapper objectMapper;
+
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // The application's ObjectMapper and codecs, as Spring Boot configures them.
+        context = new AnnotationConfigReactiveWebApplicationContext();
+        context.register(JacksonAutoConfiguration.class, CodecsAutoConfiguration.class,
+                WebFluxAutoConfiguration.class);
+        context.refresh();
+        objectMapper = context.getBean(ObjectMapper.class);
+        globalExceptionHandler = new GlobalExceptionHandler(new CustomAttributes(), new WebProperties.Resources(),
+                context, context.getBean(ServerCodecConfigurer.class), objectMapper);
+        globalExceptionHandler.afterPropertiesSet();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAppender(appender);
+        appender.stop();
+        context.close();
+    }
+
+    @Test
+    @DisplayName("handle renders a known error with the same body as the equivalent ResponseStatusException")
+    public void handle_RenderSameBody_WhenErrorIsKnown() throws Exception {
+        var known = render("/animes/42", KnownErrorException.ANIME_NOT_FOUND);
+        var generic = render("/animes/42", new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime not found"));
+
+        assertThat(known.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        JsonNode knownBody = body(known);
+        JsonNode genericBody = body(generic);
+        assertThat(fieldNames(knownBody)).isEqualTo(fieldNames(genericBody));
+        for (String field : new String[]{"path", "status", "error", "message", "developerMessage"}) {
+            assertThat(knownBody.get(field)).as(field).isEqualTo(genericBody.get(field));
+        }
+        assertThat(knownBody.get("requestId").asText()).isEqualTo(known.getRequest().getId());
+        assertThat(knownBody.get("timestamp").isTextual()).isTrue();
+        assertThat(genericBody.get("timestamp").isTextual()).isTrue();
+        assertThat(OffsetDateTime.parse(knownBody.get("timestamp").asText()))
+                .isCloseTo(OffsetDateTime.parse(genericBody.get("timestamp").asText()), within(5, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("handle escapes the path and sets the content length when the path needs escaping")
+    public void handle_EscapePath_WhenPathHasSpecialCharacters() throws Exception {
+        var exchange = render("/animes/naïve\"", KnownErrorException.INVALID_LIMIT);
+
+        String body = exchange.getResponse().getBodyAsString().block();
+        assertThat(exchange.getResponse().getHeaders().getContentLength())
+                .isEqualTo(body.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(objectMapper.readTree(body).get("path").asText())
+                .isEqualTo(exchange.getRequest().getPath().value());
+        assertThat(objectMapper.readTree(body).get("status").asInt()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("handle logs known server errors and not known client errors")
+    public void handle_LogError_WhenKnownErrorIsServerError() {
+        render("/animes/42", KnownErrorException.ANIME_NOT_FOUND);
+
+        assertThat(appender.list).isEmpty();
+
+        var exchange = render("/animes/42", KnownErrorException.LOOKUP_UNAVAILABLE);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getLevel()).isEqualTo(Level.ERROR);
+        assertThat(appender.list.get(0).getFormattedMessage())
+                .contains("503 Service Unavailable for HTTP GET \"/animes/42\"", "Anime lookup unavailable");
+    }
+
+    private MockServerWebExchange render(String path, Throwable error) {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        globalExceptionHandler.handle(exchange, error).block();
+        return exchange;
+    }
+
+    private JsonNode body(MockServerWebExchange exchange) throws Exception {
+        return objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+    }
+
+    private static String fieldNames(JsonNode node) {
+        var names = new StringBuilder();
+        node.fieldNames().forEachRemaining(name -> names.append(name).append(','));
+        return names.toString();
+    }
+
+}
@@ -0,0 +1,96 @@
+package dev.brunocesar.webflux.integration;
+
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import dev.brunocesar.webflux.service.AnimeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the anime write paths against the local Postgres from docker-compose.yml.
+ * Run with {@code mvn test -Dtest=AnimeBulkLoadBenchmarkIT -Dbenchmark.postgres=true}.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "spring.sql.init.enabled=true")
+@EnabledIfSystemProperty(named = "benchmark.postgres", matches = "true")
+public class AnimeBulkLoadBenchmarkIT {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(30);
+
+    @Autowired
+    private AnimeService animeService;
+
+    @Autowired
+    private AnimeRepository animeRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private int lastIdBeforeRun;
+
+    @BeforeEach
+    public void beforeEach() {
+        lastIdBeforeRun = databaseClient.sql("SELECT COALESCE(MAX(id), 0) AS id FROM anime")
+                .map(row -> row.get("id", Integer.class))
+                .one()
+                .block(TIMEOUT);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        deleteInsertedRows();
+    }
+
+    @ParameterizedTest(name = "{0} rows")
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    @DisplayName("bulkLoad compared with the saveAll write paths")
+    public void bulkLoad_ComparedWithSaveAll(int rows) {
+        var animes = animes(rows);
+
+        long repositorySaveAll = measure(() -> animeRepository.saveAll(animes).then());
+        long serviceSaveAll = measure(() -> animeService.saveAll(animes).then());
+        long bulkLoad = measure(() -> animeService.bulkLoad(Flux.fromIterable(animes)).then());
+
+        System.out.printf("%,d rows: repository saveAll %,d ms | service saveAll %,d ms | bulkLoad %,d ms%n",
+                rows, repositorySaveAll, serviceSaveAll, bulkLoad);
+    }
+
+    private long measure(Supplier<Mono<Void>> write) {
+        long start = System.nanoTime();
+        write.get().block(TIMEOUT);
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        deleteInsertedRows();
+        return elapsed;
+    }
+
+    private void deleteInsertedRows() {
+        databaseClient.sql("DELETE FROM anime WHERE id > $1")
+                .bind(0, lastIdBeforeRun)
+                .then()
+                .block(TIMEOUT);
+    }
+
+    private static List<Anime> animes(int rows) {
+        return IntStream.range(0, rows)
+                .mapToObj(i -> new Anime(null, "Anime " + i))
+                .collect(Collectors.toList());
+    }
+
+}
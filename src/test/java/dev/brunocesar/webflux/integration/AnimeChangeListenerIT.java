@@ -0,0 +1,142 @@
+package dev.brunocesar.webflux.integration;
+
+import dev.brunocesar.webflux.SpringWebfluxEssentialsApplication;
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeChange;
+import dev.brunocesar.webflux.exception.KnownErrorException;
+import dev.brunocesar.webflux.service.AnimeChangeFeed;
+import dev.brunocesar.webflux.service.AnimeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs two instances of the application against the Postgres from docker-compose.yml and checks that a write made
+ * on one is seen by the other, whose cache would otherwise serve the old row for {@code anime.cache.expire-after-write}.
+ * Run with {@code docker-compose up -d db} and {@code mvn test -Dtest=AnimeChangeListenerIT -Dinvalidation.postgres=true}.
+ */
+@EnabledIfSystemProperty(named = "invalidation.postgres", matches = "true")
+public class AnimeChangeListenerIT {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private ConfigurableApplicationContext first;
+
+    private ConfigurableApplicationContext second;
+
+    private Integer id;
+
+    @BeforeEach
+    public void beforeEach() {
+        first = start();
+        second = start();
+        id = databaseClient(second).sql("INSERT INTO anime (name) VALUES ('Invalidation') RETURNING id")
+                .map(row -> row.get("id", Integer.class))
+                .one()
+                .block(TIMEOUT);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        if (id != null) {
+            databaseClient(second).sql("DELETE FROM anime WHERE id = $1").bind(0, id).then().block(TIMEOUT);
+        }
+        databaseClient(second).sql("DELETE FROM anime WHERE name LIKE 'Invalidation batch %'").then().block(TIMEOUT);
+        first.close();
+        second.close();
+    }
+
+    @Test
+    @DisplayName("findById on one instance returns the name and then the not found written by the other instance")
+    public void findById_ReturnChangesFromOtherInstance_WhenCached() {
+        var animeService = first.getBean(AnimeService.class);
+
+        StepVerifier.create(animeService.findById(id))
+                .expectNextMatches(anime -> anime.getName().equals("Invalidation"))
+                .verifyComplete();
+
+        databaseClient(second).sql("UPDATE anime SET name = 'Invalidated', version = version + 1 WHERE id = $1")
+                .bind(0, id)
+                .then()
+                .block(TIMEOUT);
+
+        StepVerifier.create(awaitName(animeService, "Invalidated"))
+                .expectNextMatches(anime -> anime.getVersion() == 1L)
+                .verifyComplete();
+
+        databaseClient(second).sql("DELETE FROM anime WHERE id = $1").bind(0, id).then().block(TIMEOUT);
+
+        StepVerifier.create(Mono.defer(() -> animeService.findById(id))
+                        .map(anime -> true)
+                        .onErrorResume(KnownErrorException.class, error -> Mono.just(false))
+                        .filter(found -> !found)
+                        .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(100)))
+                        .timeout(TIMEOUT))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("saveAll on one instance reaches the other instance's change feed as one insert per row")
+    public void saveAll_PublishInsertPerRow_WhenChunkIsFull() {
+        int chunkSize = first.getBean(AnimeProperties.class).getBatch().getChunkSize();
+        var animes = IntStream.range(0, chunkSize)
+                .mapToObj(i -> new Anime(null, "Invalidation batch " + i))
+                .collect(Collectors.toList());
+        var changes = first.getBean(AnimeChangeFeed.class).changes(null);
+
+        StepVerifier.create(changes.take(chunkSize).map(AnimeChange::getType).distinct())
+                .then(() -> second.getBean(AnimeService.class).saveAll(animes).blockLast(TIMEOUT))
+                .expectNext(AnimeChange.Type.INSERT)
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("bulkLoad on one instance reaches the other instance's change feed as a single reset")
+    public void bulkLoad_PublishSingleReset_WhenLoadSpansChunks() {
+        second.getBean(AnimeProperties.class).getBatch().setBulkChunkSize(2);
+        var animes = Flux.range(0, 6).map(i -> new Anime(null, "Invalidation batch " + i));
+        var changes = first.getBean(AnimeChangeFeed.class).changes(null);
+
+        StepVerifier.create(changes.take(Duration.ofSeconds(3)).map(AnimeChange::getType))
+                .then(() -> second.getBean(AnimeService.class).bulkLoad(animes).blockLast(TIMEOUT))
+                .expectNext(AnimeChange.Type.RESET)
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    private Mono<Anime> awaitName(AnimeService animeService, String name) {
+        return Mono.defer(() -> animeService.findById(id))
+                .filter(anime -> anime.getName().equals(name))
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(100)))
+                .timeout(TIMEOUT);
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(SpringWebfluxEssentialsApplication.class)
+                .properties("server.port=0",
+                        "spring.sql.init.enabled=true",
+                        "anime.invalidation.enabled=true",
+                        "anime.cache.enabled=true")
+                .run();
+    }
+
+    private static DatabaseClient databaseClient(ConfigurableApplicationContext context) {
+        return context.getBean(DatabaseClient.class);
+    }
+
+}
@@ -1,8 +1,14 @@
 package dev.brunocesar.webflux.integration;
 
 import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeChange;
+import dev.brunocesar.webflux.domain.AnimeImportSummary;
 import dev.brunocesar.webflux.repository.AnimeRepository;
 import dev.brunocesar.webflux.repository.UserRepository;
+import dev.brunocesar.webflux.service.AnimeCache;
+import dev.brunocesar.webflux.service.AnimeChangeFeed;
+import dev.brunocesar.webflux.service.AnimeIdIndex;
+import dev.brunocesar.webflux.service.UserCredentialsCache;
 import dev.brunocesar.webflux.service.AnimeUserDetailsService;
 import dev.brunocesar.webflux.util.AnimeCreator;
 import dev.brunocesar.webflux.util.UserCreator;
@@ -16,6 +22,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -23,11 +32,16 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
@@ -43,6 +57,18 @@ public class AnimeControllerIT {
     @Autowired
     private WebTestClientUtil webTestClientUtil;
 
+    @Autowired
+    private AnimeCache animeCache;
+
+    @Autowired
+    private AnimeIdIndex animeIdIndex;
+
+    @Autowired
+    private AnimeChangeFeed animeChangeFeed;
+
+    @Autowired
+    private UserCredentialsCache userCredentialsCache;
+
     @MockBean
     private UserRepository userRepository;
 
@@ -56,6 +82,10 @@ public class AnimeControllerIT {
 
     @BeforeEach
     public void beforeEach() {
+        animeCache.invalidateAll();
+        animeIdIndex.invalidateMisses();
+        userCredentialsCache.invalidateAll();
+
         var user = userCreator.createUser();
         var admin = userCreator.createAdmin();
 
@@ -71,7 +101,13 @@ public class AnimeControllerIT {
         BDDMockito.when(userRepository.findByUsername("x"))
                 .thenReturn(Mono.empty());
 
-        BDDMockito.when(animeRepositoryMock.findAll())
+        BDDMockito.when(animeRepositoryMock.findPageAfter(anyInt(), anyInt()))
+                .thenReturn(Flux.just(anime));
+
+        BDDMockito.when(animeRepositoryMock.findCatalogueVersion())
+                .thenReturn(Mono.just("1.1.0"));
+
+        BDDMockito.when(animeRepositoryMock.search(anyString(), anyString(), anyInt()))
                 .thenReturn(Flux.just(anime));
 
         BDDMockito.when(animeRepositoryMock.findById(anyInt()))
@@ -81,14 +117,14 @@ public class AnimeControllerIT {
                 .thenReturn(Mono.just(anime));
 
         BDDMockito.when(animeRepositoryMock
-                .saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
+                .insertAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
                 .thenReturn(Flux.just(anime, anime));
 
         BDDMockito.when(animeRepositoryMock.delete(any(Anime.class)))
                 .thenReturn(Mono.empty());
 
-        BDDMockito.when(animeRepositoryMock.save(AnimeCreator.createValidAnime()))
-                .thenReturn(Mono.empty());
+        BDDMockito.when(animeRepositoryMock.updateName(anime.getId(), anime.getName(), null))
+                .thenReturn(Mono.just(anime));
     }
 
     @Test
@@ -137,6 +173,182 @@ public class AnimeControllerIT {
                 .contains(anime);
     }
 
+    @Test
+    @DisplayName("listAll returns not modified without reading the catalogue when the ETag matches and user has role ADMIN")
+    public void listAll_ReturnNotModified_WhenETagMatches() {
+        var eTag = testClientAdmin
+                .get()
+                .uri("/animes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=0, must-revalidate, private")
+                .returnResult(Anime.class)
+                .getResponseHeaders()
+                .getETag();
+        BDDMockito.clearInvocations(animeRepositoryMock);
+
+        testClientAdmin
+                .get()
+                .uri("/animes")
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        verify(animeRepositoryMock, never()).findPageAfter(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("listPage returns a flux of anime after the given id when user is successfully authenticated and has role ADMIN")
+    public void listPage_ReturnFluxOfAnime_WhenSuccessful() {
+        testClientAdmin
+                .get()
+                .uri("/animes?after={after}&limit={limit}", 0, 10)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Anime.class)
+                .hasSize(1)
+                .contains(anime);
+    }
+
+    @Test
+    @DisplayName("listPage returns bad request when limit is out of range and user is successfully authenticated and has role ADMIN")
+    public void listPage_ReturnBadRequest_WhenLimitIsInvalid() {
+        testClientAdmin
+                .get()
+                .uri("/animes?limit={limit}", 0)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("search returns a flux of anime matching the query when user is successfully authenticated")
+    public void search_ReturnFluxOfAnime_WhenSuccessful() {
+        testClientUser
+                .get()
+                .uri("/animes/search?q={q}", "naru")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Anime.class)
+                .hasSize(1)
+                .contains(anime);
+    }
+
+    @Test
+    @DisplayName("search returns bad request when query is too short and user is successfully authenticated")
+    public void search_ReturnBadRequest_WhenQueryIsTooShort() {
+        testClientUser
+                .get()
+                .uri("/animes/search?q={q}", "na")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("suggest returns the anime saved since startup whose name starts with the prefix when user is successfully authenticated")
+    public void suggest_ReturnSavedAnime_WhenPrefixMatches() {
+        testClientAdmin
+                .post()
+                .uri("/animes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(AnimeCreator.createAnimeToBeSaved()))
+                .exchange()
+                .expectStatus().isCreated();
+
+        testClientUser
+                .get()
+                .uri("/animes/suggest?prefix={prefix}", anime.getName().substring(0, 2).toUpperCase())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Anime.class)
+                .contains(anime);
+    }
+
+    @Test
+    @DisplayName("stream returns newline delimited json when user is successfully authenticated and has role ADMIN")
+    public void stream_ReturnNdjson_WhenSuccessful() {
+        testClientAdmin
+                .get()
+                .uri("/animes/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Anime.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("stream returns server-sent events when user is successfully authenticated and has role ADMIN")
+    public void stream_ReturnServerSentEvents_WhenSuccessful() {
+        testClientAdmin
+                .get()
+                .uri("/animes/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(Anime.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("stream returns forbidden when user does not have role ADMIN")
+    public void stream_ReturnForbidden_WhenUserDoesNotHaveRoleAdmin() {
+        testClientUser
+                .get()
+                .uri("/animes/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    @DisplayName("changes returns the changes after the Last-Event-ID as server-sent events when user is successfully authenticated")
+    public void changes_ReturnChangesAfterLastEventId_WhenSuccessful() {
+        long sequence = animeChangeFeed.latestSequence();
+        animeChangeFeed.deleted(1);
+
+        testClientUser
+                .get()
+                .uri("/animes/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", animeChangeFeed.getEpoch() + "-" + sequence)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(AnimeChange.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNext(new AnimeChange(AnimeChange.Type.DELETE, 1, null, null).withSequence(sequence + 1))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    @DisplayName("cacheStats returns the anime cache counters when user is successfully authenticated and has role ADMIN")
+    public void cacheStats_ReturnCacheCounters_WhenSuccessful() {
+        testClientAdmin
+                .get()
+                .uri("/animes/cache/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.hits").isNumber()
+                .jsonPath("$.misses").isNumber()
+                .jsonPath("$.evictions").isNumber();
+    }
+
     @Test
     @DisplayName("findById returns Mono with anime when it exists and user is successfully authenticated and has role USER")
     public void findById_ReturnMonoAnime_WhenSuccessful() {
@@ -149,6 +361,19 @@ public class AnimeControllerIT {
                 .isEqualTo(anime);
     }
 
+    @Test
+    @DisplayName("findById returns not modified when the ETag matches and user is successfully authenticated and has role USER")
+    public void findById_ReturnNotModified_WhenETagMatches() {
+        testClientUser
+                .get()
+                .uri("/animes/{id}", 1)
+                .ifNoneMatch("\"1.0\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1.0\"")
+                .expectBody().isEmpty();
+    }
+
     @Test
     @DisplayName("findById returns Mono Error when anime does not exist and user is successfully authenticated and has role USER")
     public void findById_ReturnMonoError_WhenEmptyMonoIsReturned() {
@@ -181,6 +406,38 @@ public class AnimeControllerIT {
                 .isEqualTo(anime);
     }
 
+    @Test
+    @DisplayName("save creates a new anime ignoring the id and version of a body copied from a GET response")
+    public void save_CreateAnime_WhenBodyHasIdAndVersion() {
+        testClientAdmin
+                .post()
+                .uri("/animes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(new Anime(1, "Fullmetal", 0L)))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Anime.class)
+                .isEqualTo(anime);
+
+        verify(animeRepositoryMock).save(AnimeCreator.createAnimeToBeSaved());
+    }
+
+    @Test
+    @DisplayName("save creates a new anime with a generated id when the body has an id but no version")
+    public void save_CreateAnimeWithGeneratedId_WhenBodyHasIdOnly() {
+        testClientAdmin
+                .post()
+                .uri("/animes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(new Anime(42, "Fullmetal")))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Anime.class)
+                .isEqualTo(anime);
+
+        verify(animeRepositoryMock).save(AnimeCreator.createAnimeToBeSaved());
+    }
+
     @Test
     @DisplayName("save returns mono error with bad request when name is empty and when user is successfully authenticated and has role ADMIN")
     public void save_ReturnsError_WhenNameIsEmpty() {
@@ -219,10 +476,6 @@ public class AnimeControllerIT {
     public void saveBatch_ReturnMonoError_WhenContainsInvalidName() {
         var animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
 
-        BDDMockito.when(animeRepositoryMock
-                .saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), new Anime())))
-                .thenReturn(Flux.just(anime, new Anime()));
-
         testClientAdmin
                 .post()
                 .uri("/animes")
@@ -234,6 +487,56 @@ public class AnimeControllerIT {
                 .jsonPath("$.status").isEqualTo(400);
     }
 
+    @Test
+    @DisplayName("importNdjson returns accepted and rejected counts when user is successfully authenticated and has role ADMIN")
+    public void importNdjson_ReturnSummary_WhenSuccessful() {
+        BDDMockito.when(animeRepositoryMock.insertAll(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Anime>>getArgument(0)));
+
+        testClientAdmin
+                .post()
+                .uri("/animes/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"name\":\"Fullmetal\"}\n{\"name\":\"\"}\n{\"name\":\"Naruto\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AnimeImportSummary.class)
+                .contains(new AnimeImportSummary(0, 2, 1));
+    }
+
+    @Test
+    @DisplayName("importNdjson returns forbidden when user does not have role ADMIN")
+    public void importNdjson_ReturnForbidden_WhenUserDoesNotHaveRoleAdmin() {
+        testClientUser
+                .post()
+                .uri("/animes/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"name\":\"Fullmetal\"}\n")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    @DisplayName("bulkLoad returns accepted and rejected counts when user is successfully authenticated and has role ADMIN")
+    public void bulkLoad_ReturnSummary_WhenSuccessful() {
+        BDDMockito.when(animeRepositoryMock.bulkInsert(anyList()))
+                .thenAnswer(invocation -> Mono.just(invocation.<List<Anime>>getArgument(0).size()));
+        BDDMockito.when(animeRepositoryMock.notifyReset())
+                .thenReturn(Mono.empty());
+
+        testClientAdmin
+                .post()
+                .uri("/animes/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"name\":\"Fullmetal\"}\n{\"name\":\"\"}\n{\"name\":\"Naruto\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AnimeImportSummary.class)
+                .contains(new AnimeImportSummary(0, 2, 1));
+    }
+
     @Test
     @DisplayName("delete removes the anime when successful and when user is successfully authenticated and has role ADMIN")
     public void delete_RemovesAnime_WhenSuccessful() {
@@ -275,7 +578,7 @@ public class AnimeControllerIT {
     @Test
     @DisplayName("update returns Mono error when anime does exist and when user is successfully authenticated and has role ADMIN")
     public void update_ReturnMonoError_WhenEmptyMonoIsReturned() {
-        BDDMockito.when(animeRepositoryMock.findById(anyInt()))
+        BDDMockito.when(animeRepositoryMock.updateName(anyInt(), anyString(), any()))
                 .thenReturn(Mono.empty());
 
         testClientAdmin
@@ -290,4 +593,21 @@ public class AnimeControllerIT {
                 .jsonPath("$.developerMessage").isEqualTo("A ResponseStatusException happened");
     }
 
+    @Test
+    @DisplayName("update returns conflict when the anime was modified since the given version and when user is successfully authenticated and has role ADMIN")
+    public void update_ReturnConflict_WhenVersionIsStale() {
+        BDDMockito.when(animeRepositoryMock.updateName(anyInt(), anyString(), any()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+
+        testClientAdmin
+                .put()
+                .uri("/animes/{id}", 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(new Anime(1, "Fullmetal", 3L)))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(409);
+    }
+
 }
@@ -0,0 +1,244 @@
+package dev.brunocesar.webflux.integration;
+
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.User;
+import dev.brunocesar.webflux.repository.UserRepository;
+import dev.brunocesar.webflux.util.LatencyReport;
+import dev.brunocesar.webflux.util.UserCreator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Drives a mixed read/write/batch workload over HTTP against the application backed by the local Postgres
+ * from docker-compose.yml and prints throughput and latency percentiles per endpoint.
+ * Run with {@code mvn test -Dtest=AnimeLoadTestIT -Dloadtest=true}; the workload is sized with
+ * {@code loadtest.animes}, {@code loadtest.users}, {@code loadtest.concurrency}, {@code loadtest.warmup}
+ * and {@code loadtest.duration} (seconds).
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.sql.init.enabled=true")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class AnimeLoadTestIT {
+
+    private static final int ANIMES = Integer.getInteger("loadtest.animes", 10_000);
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 20);
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 64);
+
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration", 60));
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    private static final int PAGE_LIMIT = 100;
+
+    private static final int BATCH_SIZE = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    private WebClient webClient;
+
+    private List<String> usernames;
+
+    private int lastIdBeforeRun;
+
+    private int lastSeededId;
+
+    @BeforeEach
+    public void beforeEach() {
+        lastIdBeforeRun = maxAnimeId();
+        databaseClient.sql("INSERT INTO anime (name) SELECT 'Anime ' || i FROM generate_series(1, $1) AS i")
+                .bind(0, ANIMES)
+                .then()
+                .block(TIMEOUT);
+        lastSeededId = maxAnimeId();
+
+        Map<String, User> users = seedUsers();
+        usernames = List.copyOf(users.keySet());
+        BDDMockito.when(userRepository.findByUsername(anyString()))
+                .thenAnswer(invocation -> Mono.justOrEmpty(users.get(invocation.<String>getArgument(0))));
+
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .build();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        databaseClient.sql("DELETE FROM anime WHERE id > $1")
+                .bind(0, lastIdBeforeRun)
+                .then()
+                .block(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("mixed workload reports throughput and latency per endpoint")
+    public void mixedWorkload_ReportsThroughputAndLatencyPerEndpoint() {
+        run(WARMUP, newReport());
+
+        var report = newReport();
+        long start = System.nanoTime();
+        run(DURATION, report);
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        System.out.printf("%,d animes, %d users, %d concurrent requests, %d s%n",
+                ANIMES, USERS, CONCURRENCY, elapsed.toSeconds());
+        report.print(System.out, elapsed);
+        assertThat(report.getErrorCount()).isZero();
+    }
+
+    private void run(Duration duration, LatencyReport report) {
+        Flux.<Endpoint>generate(sink -> sink.next(Endpoint.next()))
+                .take(duration)
+                .flatMap(endpoint -> send(endpoint, report), CONCURRENCY)
+                .then()
+                .block(duration.plus(TIMEOUT));
+    }
+
+    private Mono<Void> send(Endpoint endpoint, LatencyReport report) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request(endpoint)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .doOnSuccess(response -> report.recordLatency(endpoint.label, System.nanoTime() - start));
+        }).onErrorResume(error -> {
+            report.recordError(endpoint.label);
+            return Mono.empty();
+        }).then();
+    }
+
+    private WebClient.RequestHeadersSpec<?> request(Endpoint endpoint) {
+        var random = ThreadLocalRandom.current();
+        String username = usernames.get(random.nextInt(usernames.size()));
+        int id = random.nextInt(lastIdBeforeRun + 1, lastSeededId + 1);
+        switch (endpoint) {
+            case FIND_BY_ID:
+                return webClient.get()
+                        .uri("/animes/{id}", id)
+                        .headers(headers -> headers.setBasicAuth(username, UserCreator.getAdminPassword()));
+            case LIST_PAGE:
+                return webClient.get()
+                        .uri("/animes?after={after}&limit={limit}", id, PAGE_LIMIT)
+                        .headers(headers -> headers.setBasicAuth(username, UserCreator.getAdminPassword()));
+            case SAVE:
+                return webClient.post()
+                        .uri("/animes")
+                        .headers(headers -> headers.setBasicAuth(username, UserCreator.getAdminPassword()))
+                        .bodyValue(new Anime(null, "Load test anime"));
+            case UPDATE:
+                return webClient.put()
+                        .uri("/animes/{id}", id)
+                        .headers(headers -> headers.setBasicAuth(username, UserCreator.getAdminPassword()))
+                        .bodyValue(new Anime(id, "Load test anime " + id));
+            case SAVE_BATCH:
+                return webClient.post()
+                        .uri("/animes/batch")
+                        .headers(headers -> headers.setBasicAuth(username, UserCreator.getAdminPassword()))
+                        .bodyValue(IntStream.range(0, BATCH_SIZE)
+                                .mapToObj(i -> new Anime(null, "Load test batch anime " + i))
+                                .collect(Collectors.toList()));
+            default:
+                throw new IllegalArgumentException(endpoint.label);
+        }
+    }
+
+    private int maxAnimeId() {
+        return databaseClient.sql("SELECT COALESCE(MAX(id), 0) AS id FROM anime")
+                .map(row -> row.get("id", Integer.class))
+                .one()
+                .block(TIMEOUT);
+    }
+
+    private static Map<String, User> seedUsers() {
+        String password = PasswordEncoderFactories.createDelegatingPasswordEncoder()
+                .encode(UserCreator.getAdminPassword());
+        Map<String, User> users = new HashMap<>();
+        for (int i = 1; i <= USERS; i++) {
+            var user = new User();
+            user.setId(i);
+            user.setName("Load Test " + i);
+            user.setUsername("loadtest" + i);
+            user.setPassword(password);
+            user.setAuthorities("ROLE_ADMIN,ROLE_USER");
+            users.put(user.getUsername(), user);
+        }
+        return users;
+    }
+
+    private static LatencyReport newReport() {
+        return new LatencyReport(Arrays.stream(Endpoint.values())
+                .map(endpoint -> endpoint.label)
+                .collect(Collectors.toList()));
+    }
+
+    private enum Endpoint {
+        FIND_BY_ID("GET /animes/{id}", 70),
+        LIST_PAGE("GET /animes?limit", 10),
+        SAVE("POST /animes", 10),
+        UPDATE("PUT /animes/{id}", 5),
+        SAVE_BATCH("POST /animes/batch", 5);
+
+        private static final Endpoint[] VALUES = values();
+
+        private static final int TOTAL_WEIGHT = Arrays.stream(VALUES).mapToInt(endpoint -> endpoint.weight).sum();
+
+        private final String label;
+
+        private final int weight;
+
+        Endpoint(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+
+        private static Endpoint next() {
+            int roll = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+            for (Endpoint endpoint : VALUES) {
+                roll -= endpoint.weight;
+                if (roll < 0) {
+                    return endpoint;
+                }
+            }
+            return FIND_BY_ID;
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package dev.brunocesar.webflux.integration;
+
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AuthToken;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import dev.brunocesar.webflux.repository.UserRepository;
+import dev.brunocesar.webflux.service.AnimeCache;
+import dev.brunocesar.webflux.service.UserCredentialsCache;
+import dev.brunocesar.webflux.util.AnimeCreator;
+import dev.brunocesar.webflux.util.UserCreator;
+import dev.brunocesar.webflux.util.WebTestClientUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "anime.security.token.enabled=true")
+@AutoConfigureWebTestClient
+public class AuthControllerIT {
+
+    @Autowired
+    private UserCreator userCreator;
+
+    @MockBean
+    private AnimeRepository animeRepositoryMock;
+
+    @Autowired
+    private WebTestClientUtil webTestClientUtil;
+
+    @Autowired
+    private AnimeCache animeCache;
+
+    @Autowired
+    private UserCredentialsCache userCredentialsCache;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    private WebTestClient testClientUser;
+
+    private final Anime anime = AnimeCreator.createValidAnime();
+
+    @BeforeEach
+    public void beforeEach() {
+        animeCache.invalidateAll();
+        userCredentialsCache.invalidateAll();
+
+        var user = userCreator.createUser();
+
+        testClientUser = webTestClientUtil.authenticateClient(user.getUsername(), UserCreator.getUserPassword());
+        BDDMockito.when(userRepository.findByUsername(user.getUsername()))
+                .thenReturn(Mono.just(user));
+
+        BDDMockito.when(animeRepositoryMock.findById(anyInt()))
+                .thenReturn(Mono.just(anime));
+    }
+
+    @Test
+    @DisplayName("token issues a bearer token that authenticates later requests without loading the user")
+    public void token_IssueBearerToken_WhenUserIsAuthenticated() {
+        var authToken = testClientUser
+                .post()
+                .uri("/auth/token")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AuthToken.class)
+                .returnResult()
+                .getResponseBody();
+
+        BDDMockito.reset(userRepository);
+
+        webTestClientUtil.authenticateClientWithToken(authToken.getToken())
+                .get()
+                .uri("/animes/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Anime.class)
+                .isEqualTo(anime);
+
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    @DisplayName("findById returns unauthorized when the bearer token is invalid")
+    public void findById_ReturnUnauthorized_WhenTokenIsInvalid() {
+        webTestClientUtil.authenticateClientWithToken("invalid.token")
+                .get()
+                .uri("/animes/{id}", 1)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    @DisplayName("token returns unauthorized when requested with a bearer token instead of credentials")
+    public void token_ReturnUnauthorized_WhenAuthenticatedWithToken() {
+        var authToken = testClientUser
+                .post()
+                .uri("/auth/token")
+                .exchange()
+                .expectBody(AuthToken.class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClientUtil.authenticateClientWithToken(authToken.getToken())
+                .post()
+                .uri("/auth/token")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+}
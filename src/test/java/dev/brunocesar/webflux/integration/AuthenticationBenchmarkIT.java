@@ -0,0 +1,115 @@
+package dev.brunocesar.webflux.integration;
+
+import dev.brunocesar.webflux.domain.AuthToken;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import dev.brunocesar.webflux.repository.UserRepository;
+import dev.brunocesar.webflux.service.UserCredentialsCache;
+import dev.brunocesar.webflux.util.AnimeCreator;
+import dev.brunocesar.webflux.util.UserCreator;
+import dev.brunocesar.webflux.util.WebTestClientUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+
+/**
+ * Compares requests per second on {@code GET /animes/{id}} for HTTP Basic and Bearer Token authentication.
+ * Run with {@code mvn test -Dtest=AuthenticationBenchmarkIT -Dbenchmark=true}.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "anime.security.token.enabled=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AuthenticationBenchmarkIT {
+
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+
+    private static final Duration MEASUREMENT = Duration.ofSeconds(5);
+
+    @Autowired
+    private UserCreator userCreator;
+
+    @Autowired
+    private WebTestClientUtil webTestClientUtil;
+
+    @Autowired
+    private UserCredentialsCache userCredentialsCache;
+
+    @MockBean
+    private AnimeRepository animeRepositoryMock;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    private WebTestClient basicClient;
+
+    private WebTestClient tokenClient;
+
+    @BeforeEach
+    public void beforeEach() {
+        var user = userCreator.createUser();
+        BDDMockito.when(userRepository.findByUsername(user.getUsername()))
+                .thenReturn(Mono.just(user));
+        BDDMockito.when(animeRepositoryMock.findById(anyInt()))
+                .thenReturn(Mono.just(AnimeCreator.createValidAnime()));
+
+        basicClient = webTestClientUtil.authenticateClient(user.getUsername(), UserCreator.getUserPassword());
+        var authToken = basicClient.post()
+                .uri("/auth/token")
+                .exchange()
+                .expectBody(AuthToken.class)
+                .returnResult()
+                .getResponseBody();
+        tokenClient = webTestClientUtil.authenticateClientWithToken(authToken.getToken());
+    }
+
+    @Test
+    @DisplayName("findById requests per second with Basic and Bearer Token authentication")
+    public void findById_ComparedAcrossAuthenticationModes() {
+        double basic = requestsPerSecond(basicClient, userCredentialsCache::invalidateAll);
+        double cachedBasic = requestsPerSecond(basicClient, () -> {
+        });
+        double token = requestsPerSecond(tokenClient, () -> {
+        });
+
+        System.out.printf("GET /animes/{id}: basic %,.0f req/s | cached basic %,.0f req/s | token %,.0f req/s%n",
+                basic, cachedBasic, token);
+    }
+
+    private double requestsPerSecond(WebTestClient client, Runnable beforeRequest) {
+        run(client, beforeRequest, WARMUP);
+        long start = System.nanoTime();
+        long requests = run(client, beforeRequest, MEASUREMENT);
+        return requests / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private static long run(WebTestClient client, Runnable beforeRequest, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long requests = 0;
+        while (System.nanoTime() < deadline) {
+            beforeRequest.run();
+            findById(client);
+            requests++;
+        }
+        return requests;
+    }
+
+    private static void findById(WebTestClient client) {
+        client.get()
+                .uri("/animes/{id}", 1)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+}
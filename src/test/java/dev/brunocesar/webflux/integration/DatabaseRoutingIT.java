@@ -0,0 +1,133 @@
+package dev.brunocesar.webflux.integration;
+
+import dev.brunocesar.webflux.config.RoutingConnectionFactory;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.service.AnimeCache;
+import dev.brunocesar.webflux.service.AnimeService;
+import dev.brunocesar.webflux.util.UserCreator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+/**
+ * Routes reads between the two Postgres instances from docker-compose.yml, which hold different names for
+ * the same anime id so that the instance serving each read is visible.
+ * Run with {@code docker-compose up -d} and {@code mvn test -Dtest=DatabaseRoutingIT -Drouting.postgres=true}.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+        "anime.routing.enabled=true",
+        "anime.routing.replica-urls=r2dbc:postgresql://localhost:5433/postgres?schema=anime",
+        "anime.routing.read-your-writes-window=1s"})
+@EnabledIfSystemProperty(named = "routing.postgres", matches = "true")
+public class DatabaseRoutingIT {
+
+    private static final int ID = 1_000_000;
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private AnimeService animeService;
+
+    @Autowired
+    private AnimeCache animeCache;
+
+    @Autowired
+    private RoutingConnectionFactory routingConnectionFactory;
+
+    private DatabaseClient primary;
+
+    private DatabaseClient replica;
+
+    private Integer savedId;
+
+    @BeforeEach
+    public void beforeEach() {
+        primary = DatabaseClient.create(routingConnectionFactory.getConnectionPools().get("primary"));
+        replica = DatabaseClient.create(routingConnectionFactory.getConnectionPools().get("replica-0"));
+        seed(primary, "Primary anime");
+        seed(replica, "Replica anime");
+        animeCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        delete(primary, ID);
+        delete(replica, ID);
+        if (savedId != null) {
+            delete(primary, savedId);
+        }
+    }
+
+    @Test
+    @DisplayName("findById reads from the replica, from the primary right after the user's write, then from the replica again")
+    public void findById_ReadFromPrimary_WhenWithinReadYourWritesWindow() throws InterruptedException {
+        var admin = new UserCreator().createAdmin();
+        var adminAuthentication = ReactiveSecurityContextHolder.withAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, admin.getPassword(), admin.getAuthorities()));
+        var user = new UserCreator().createUser();
+        var userAuthentication = ReactiveSecurityContextHolder.withAuthentication(
+                new UsernamePasswordAuthenticationToken(user, user.getPassword(), user.getAuthorities()));
+
+        StepVerifier.create(animeService.findById(ID).contextWrite(adminAuthentication))
+                .expectNextMatches(anime -> anime.getName().equals("Replica anime"))
+                .verifyComplete();
+
+        savedId = animeService.save(new Anime(null, "Routing write"))
+                .contextWrite(adminAuthentication)
+                .map(Anime::getId)
+                .block(TIMEOUT);
+        // Stands in for the eviction that a write to the row itself would make.
+        animeCache.invalidateAll();
+
+        StepVerifier.create(animeService.findById(ID).contextWrite(userAuthentication))
+                .expectNextMatches(anime -> anime.getName().equals("Replica anime"))
+                .verifyComplete();
+
+        StepVerifier.create(animeService.findById(ID).contextWrite(adminAuthentication))
+                .expectNextMatches(anime -> anime.getName().equals("Primary anime"))
+                .verifyComplete();
+
+        StepVerifier.create(animeService.findById(savedId).contextWrite(adminAuthentication))
+                .expectNextMatches(anime -> anime.getName().equals("Routing write"))
+                .verifyComplete();
+
+        Thread.sleep(Duration.ofSeconds(1).toMillis());
+
+        StepVerifier.create(animeService.findById(ID).contextWrite(adminAuthentication))
+                .expectNextMatches(anime -> anime.getName().equals("Replica anime"))
+                .verifyComplete();
+    }
+
+    private static void seed(DatabaseClient databaseClient, String name) {
+        databaseClient.sql("CREATE TABLE IF NOT EXISTS anime "
+                        + "(id SERIAL PRIMARY KEY, name VARCHAR(255) NOT NULL, version BIGINT NOT NULL DEFAULT 0)")
+                .then()
+                .then(databaseClient.sql("DELETE FROM anime WHERE id = $1").bind(0, ID).then())
+                .then(databaseClient.sql("INSERT INTO anime (id, name) VALUES ($1, $2)")
+                        .bind(0, ID)
+                        .bind(1, name)
+                        .then())
+                .block(TIMEOUT);
+    }
+
+    private static void delete(DatabaseClient databaseClient, int id) {
+        databaseClient.sql("DELETE FROM anime WHERE id = $1")
+                .bind(0, id)
+                .then()
+                .block(TIMEOUT);
+    }
+
+}
@@ -0,0 +1,126 @@
+package dev.brunocesar.webflux.integration;
+
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import dev.brunocesar.webflux.repository.UserRepository;
+import dev.brunocesar.webflux.service.AnimeCache;
+import dev.brunocesar.webflux.service.UserCredentialsCache;
+import dev.brunocesar.webflux.util.AnimeCreator;
+import dev.brunocesar.webflux.util.UserCreator;
+import dev.brunocesar.webflux.util.WebTestClientUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "management.health.r2dbc.enabled=false")
+@AutoConfigureWebTestClient
+@AutoConfigureMetrics
+public class MetricsEndpointIT {
+
+    @Autowired
+    private UserCreator userCreator;
+
+    @MockBean
+    private AnimeRepository animeRepositoryMock;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private WebTestClientUtil webTestClientUtil;
+
+    @Autowired
+    private WebTestClient anonymousClient;
+
+    @Autowired
+    private AnimeCache animeCache;
+
+    @Autowired
+    private UserCredentialsCache userCredentialsCache;
+
+    private WebTestClient testClientUser;
+
+    private WebTestClient testClientAdmin;
+
+    @BeforeEach
+    public void beforeEach() {
+        animeCache.invalidateAll();
+        userCredentialsCache.invalidateAll();
+
+        var user = userCreator.createUser();
+        var admin = userCreator.createAdmin();
+
+        testClientUser = webTestClientUtil.authenticateClient(user.getUsername(), UserCreator.getUserPassword());
+        testClientAdmin = webTestClientUtil.authenticateClient(admin.getUsername(), UserCreator.getAdminPassword());
+
+        BDDMockito.when(userRepository.findByUsername(user.getUsername()))
+                .thenReturn(Mono.just(user));
+        BDDMockito.when(userRepository.findByUsername(admin.getUsername()))
+                .thenReturn(Mono.just(admin));
+        BDDMockito.when(animeRepositoryMock.findById(anyInt()))
+                .thenReturn(Mono.just(AnimeCreator.createValidAnime()));
+    }
+
+    @Test
+    @DisplayName("prometheus exposes timers for the request, service, authentication, cache and pool stages")
+    public void prometheus_ExposePipelineMetrics_WhenUserIsAdmin() {
+        testClientUser
+                .get()
+                .uri("/animes/{id}", 1)
+                .exchange()
+                .expectStatus().isOk();
+
+        String scrape = testClientAdmin
+                .get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_count{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/animes/{id}\",}")
+                .contains("anime_service_seconds_count{operation=\"findById\",outcome=\"success\",}")
+                .contains("anime_security_authentication_seconds_count{operation=\"authenticate\",outcome=\"success\",scheme=\"basic\",}")
+                .contains("anime_security_users_seconds_count{operation=\"findByUsername\",outcome=\"success\",}")
+                .contains("cache_gets_total{cache=\"anime\",result=\"miss\",}")
+                .contains("r2dbc_pool_acquired_connections{name=\"connectionFactory\",}")
+                .contains("r2dbc_pool_idle_connections{name=\"connectionFactory\",}")
+                .contains("r2dbc_pool_pending_connections{name=\"connectionFactory\",}");
+    }
+
+    @Test
+    @DisplayName("prometheus returns forbidden when user does not have role ADMIN")
+    public void prometheus_ReturnForbidden_WhenUserIsNotAdmin() {
+        testClientUser
+                .get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    @DisplayName("health is available without authentication")
+    public void health_ReturnOk_WhenUserIsAnonymous() {
+        anonymousClient
+                .get()
+                .uri("/actuator/health")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+}
@@ -0,0 +1,101 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.config.ReadYourWrites;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.User;
+import dev.brunocesar.webflux.util.AnimeCreator;
+import dev.brunocesar.webflux.util.UserCreator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+public class AnimeCacheTest {
+
+    private final Anime anime = AnimeCreator.createValidAnime();
+
+    private final User admin = new UserCreator().createAdmin();
+
+    @Test
+    @DisplayName("get loads a miss with the security context of the caller")
+    public void get_LoadWithCallerContext_WhenMissing() {
+        var readYourWrites = new ReadYourWrites(routingProperties(Duration.ofSeconds(5)));
+        var animeCache = new AnimeCache(new AnimeProperties(), readYourWrites);
+
+        IntFunction<Mono<Anime>> loader = id -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .map(name -> new Anime(id, name));
+
+        StepVerifier.create(animeCache.get(1, loader).contextWrite(authentication(admin)))
+                .expectNextMatches(loaded -> loaded.getName().equals(admin.getUsername()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("get neither shares nor stores loads while a write may not have reached the replicas")
+    public void get_DoNotStoreLoad_WhenWithinReadYourWritesWindow() {
+        var readYourWrites = new ReadYourWrites(routingProperties(Duration.ofSeconds(5)));
+        var animeCache = new AnimeCache(new AnimeProperties(), readYourWrites);
+        var loads = new AtomicInteger();
+        IntFunction<Mono<Anime>> loader = id -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return anime;
+        });
+
+        StepVerifier.create(readYourWrites.recordWrite().contextWrite(authentication(admin))
+                        .then(animeCache.get(1, loader))
+                        .then(animeCache.get(1, loader)))
+                .expectNext(anime)
+                .verifyComplete();
+
+        assertThat(loads).hasValue(2);
+        assertThat(animeCache.stats().getSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("get stores loads when no write window is open")
+    public void get_StoreLoad_WhenNoWriteWindowIsOpen() {
+        var readYourWrites = new ReadYourWrites(routingProperties(Duration.ofSeconds(5)));
+        var animeCache = new AnimeCache(new AnimeProperties(), readYourWrites);
+        var loads = new AtomicInteger();
+        IntFunction<Mono<Anime>> loader = id -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return anime;
+        });
+
+        StepVerifier.create(animeCache.get(1, loader).then(animeCache.get(1, loader)))
+                .expectNext(anime)
+                .verifyComplete();
+
+        assertThat(loads).hasValue(1);
+    }
+
+    private static AnimeProperties routingProperties(Duration readYourWritesWindow) {
+        var animeProperties = new AnimeProperties();
+        animeProperties.getRouting().setEnabled(true);
+        animeProperties.getRouting().setReadYourWritesWindow(readYourWritesWindow);
+        return animeProperties;
+    }
+
+    private static Context authentication(User user) {
+        return ReactiveSecurityContextHolder.withAuthentication(
+                new UsernamePasswordAuthenticationToken(user, user.getPassword(), user.getAuthorities()));
+    }
+
+}
@@ -0,0 +1,141 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeChange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+public class AnimeChangeFeedTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private AnimeProperties animeProperties;
+
+    private AnimeChangeFeed animeChangeFeed;
+
+    @BeforeEach
+    public void beforeEach() {
+        animeProperties = new AnimeProperties();
+        animeProperties.getInvalidation().setEnabled(false);
+        animeProperties.getChanges().setReplaySize(4);
+        animeProperties.getChanges().setBufferSize(2);
+        animeProperties.getChanges().setPrefetch(1);
+        animeChangeFeed = new AnimeChangeFeed(animeProperties);
+    }
+
+    @Test
+    @DisplayName("changes returns only the changes published after subscribing, numbered in order")
+    public void changes_ReturnNewChanges_WhenSubscribed() {
+        animeChangeFeed.created(new Anime(1, "Naruto", 0L));
+
+        StepVerifier.create(animeChangeFeed.changes(null))
+                .then(() -> {
+                    animeChangeFeed.updated(new Anime(1, "Naruto Shippuden", 1L));
+                    animeChangeFeed.deleted(1);
+                })
+                .expectNext(change(2, AnimeChange.Type.UPDATE, 1, "Naruto Shippuden", 1L))
+                .expectNext(change(3, AnimeChange.Type.DELETE, 1, null, null))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("changes replays the changes after the given event id when they are still kept")
+    public void changes_ReplayMissedChanges_WhenResumed() {
+        animeChangeFeed.created(new Anime(1, "Naruto", 0L));
+        animeChangeFeed.created(new Anime(2, "Bleach", 0L));
+        animeChangeFeed.deleted(1);
+
+        StepVerifier.create(animeChangeFeed.changes(animeChangeFeed.getEpoch() + "-1"))
+                .expectNext(change(2, AnimeChange.Type.INSERT, 2, "Bleach", 0L))
+                .expectNext(change(3, AnimeChange.Type.DELETE, 1, null, null))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("changes starts with a reset when the changes after the given event id are no longer kept")
+    public void changes_StartWithReset_WhenResumedTooFarBack() {
+        for (int id = 1; id <= 6; id++) {
+            animeChangeFeed.created(new Anime(id, "Anime " + id, 0L));
+        }
+
+        StepVerifier.create(animeChangeFeed.changes(animeChangeFeed.getEpoch() + "-1"))
+                .expectNext(change(6, AnimeChange.Type.RESET, null, null, null))
+                .then(() -> animeChangeFeed.deleted(6))
+                .expectNext(change(7, AnimeChange.Type.DELETE, 6, null, null))
+                .thenCancel()
+                .verify(TIMEOUT);
+
+        StepVerifier.create(animeChangeFeed.changes(animeChangeFeed.getEpoch() + "-100"))
+                .expectNext(change(7, AnimeChange.Type.RESET, null, null, null))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("changes starts with a reset when the event id comes from another instance or an earlier run")
+    public void changes_StartWithReset_WhenEventIdIsFromAnotherEpoch() {
+        animeChangeFeed.created(new Anime(1, "Naruto", 0L));
+        animeChangeFeed.created(new Anime(2, "Bleach", 0L));
+        var otherInstance = new AnimeChangeFeed(animeProperties);
+
+        for (String lastEventId : new String[]{otherInstance.getEpoch() + "-1", "1", "not-an-id"}) {
+            StepVerifier.create(animeChangeFeed.changes(lastEventId))
+                    .expectNext(change(2, AnimeChange.Type.RESET, null, null, null))
+                    .thenCancel()
+                    .verify(TIMEOUT);
+        }
+    }
+
+    @Test
+    @DisplayName("eventId prefixes the sequence with the epoch of this instance")
+    public void eventId_PrefixSequenceWithEpoch_WhenSuccessful() {
+        var change = change(3, AnimeChange.Type.DELETE, 1, null, null);
+
+        Assertions.assertEquals(animeChangeFeed.getEpoch() + "-3", animeChangeFeed.eventId(change));
+        Assertions.assertNotEquals(animeChangeFeed.getEpoch(), new AnimeChangeFeed(animeProperties).getEpoch());
+    }
+
+    @Test
+    @DisplayName("changes drops the oldest buffered changes when the subscriber falls behind")
+    public void changes_DropOldestChanges_WhenSubscriberFallsBehind() {
+        StepVerifier.create(animeChangeFeed.changes(null), 0)
+                .then(() -> {
+                    for (int id = 1; id <= 5; id++) {
+                        animeChangeFeed.deleted(id);
+                    }
+                })
+                .thenRequest(3)
+                .expectNextMatches(change -> change.getSequence() == 1)
+                .expectNextMatches(change -> change.getSequence() == 4)
+                .expectNextMatches(change -> change.getSequence() == 5)
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("created publishes nothing when changes come from the database listener")
+    public void created_PublishNothing_WhenInvalidationIsEnabled() {
+        animeProperties.getInvalidation().setEnabled(true);
+
+        animeChangeFeed.created(new Anime(1, "Naruto", 0L));
+
+        StepVerifier.create(animeChangeFeed.changes(animeChangeFeed.getEpoch() + "-0"))
+                .then(() -> animeChangeFeed.publish(new AnimeChange(AnimeChange.Type.INSERT, 1, "Naruto", 0L)))
+                .expectNext(change(1, AnimeChange.Type.INSERT, 1, "Naruto", 0L))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    private static AnimeChange change(long sequence, AnimeChange.Type type, Integer id, String name, Long version) {
+        return new AnimeChange(type, id, name, version).withSequence(sequence);
+    }
+
+}
@@ -0,0 +1,87 @@
+package dev.brunocesar.webflux.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(SpringExtension.class)
+public class AnimeChangeListenerTest {
+
+    private AnimeChangeListener animeChangeListener;
+
+    @Mock
+    private AnimeCache animeCache;
+
+    @Mock
+    private AnimeSuggestionIndex animeSuggestionIndex;
+
+    @Mock
+    private AnimeIdIndex animeIdIndex;
+
+    @Mock
+    private AnimeSnapshot animeSnapshot;
+
+    @Mock
+    private AnimeChangeFeed animeChangeFeed;
+
+    @BeforeEach
+    public void beforeEach() {
+        var r2dbcProperties = new R2dbcProperties();
+        r2dbcProperties.setUrl("r2dbc:postgresql://localhost:5432/postgres");
+        animeChangeListener = new AnimeChangeListener(r2dbcProperties, new AnimeProperties(), new ObjectMapper(),
+                animeCache, animeSuggestionIndex, animeIdIndex, animeSnapshot, animeChangeFeed);
+    }
+
+    @Test
+    @DisplayName("apply evicts the anime and stores its new name and version when it was updated elsewhere")
+    public void apply_EvictAndStoreAnime_WhenUpdated() {
+        var change = new AnimeChange(AnimeChange.Type.UPDATE, 1, "Naruto", 2L);
+        animeChangeListener.apply(change);
+
+        var anime = new Anime(1, "Naruto", 2L);
+        verify(animeCache).invalidate(1);
+        verify(animeSuggestionIndex).put(anime);
+        verify(animeIdIndex).put(1);
+        verify(animeSnapshot).put(anime);
+        verify(animeChangeFeed).publish(change);
+    }
+
+    @Test
+    @DisplayName("apply evicts and removes the anime when it was deleted elsewhere")
+    public void apply_EvictAndRemoveAnime_WhenDeleted() {
+        animeChangeListener.apply(new AnimeChange(AnimeChange.Type.DELETE, 1, null, null));
+
+        verify(animeCache).invalidate(1);
+        verify(animeSuggestionIndex).remove(1);
+        verify(animeIdIndex).remove(1);
+        verify(animeSnapshot).remove(1);
+        verify(animeSnapshot, never()).put(any());
+    }
+
+    @Test
+    @DisplayName("apply clears the cache and reloads every index when too many rows changed to publish them one by one")
+    public void apply_ClearCacheAndReloadIndexes_WhenReset() {
+        animeChangeListener.apply(new AnimeChange(AnimeChange.Type.RESET, null, null, null));
+
+        verify(animeCache).invalidateAll();
+        verify(animeCache, never()).invalidate(anyInt());
+        verify(animeIdIndex).invalidateMisses();
+        verify(animeSuggestionIndex).refresh();
+        verify(animeIdIndex).refresh();
+        verify(animeSnapshot).refresh();
+    }
+
+}
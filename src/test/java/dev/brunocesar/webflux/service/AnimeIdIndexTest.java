@@ -0,0 +1,114 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class AnimeIdIndexTest {
+
+    @InjectMocks
+    private AnimeIdIndex animeIdIndex;
+
+    @Mock
+    private AnimeRepository animeRepository;
+
+    @Spy
+    private AnimeProperties animeProperties = new AnimeProperties();
+
+    @Test
+    @DisplayName("mightExist rules out the ids missing from the loaded bitmap and allows every id before the load")
+    public void mightExist_RuleOutMissingIds_WhenLoaded() {
+        when(animeRepository.findIdsAfter(anyInt(), anyInt())).thenReturn(Flux.just(1, 2, 130));
+
+        assertThat(animeIdIndex.mightExist(3)).isTrue();
+
+        StepVerifier.create(animeIdIndex.load())
+                .expectNext(3)
+                .verifyComplete();
+
+        assertThat(animeIdIndex.mightExist(1)).isTrue();
+        assertThat(animeIdIndex.mightExist(130)).isTrue();
+        assertThat(animeIdIndex.mightExist(3)).isFalse();
+        assertThat(animeIdIndex.mightExist(1_000)).isFalse();
+        assertThat(animeIdIndex.mightExist(animeProperties.getIdIndex().getMaxId() + 1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("mightExist allows ids missing from the bitmap when cache invalidation is disabled")
+    public void mightExist_AllowMissingIds_WhenInvalidationIsDisabled() {
+        animeProperties.getInvalidation().setEnabled(false);
+        var animeIdIndex = new AnimeIdIndex(animeRepository, animeProperties);
+        when(animeRepository.findIdsAfter(anyInt(), anyInt())).thenReturn(Flux.just(1, 2));
+
+        StepVerifier.create(animeIdIndex.load())
+                .expectNext(2)
+                .verifyComplete();
+        animeIdIndex.refresh();
+
+        assertThat(animeIdIndex.mightExist(3)).isTrue();
+        verify(animeRepository, times(1)).findIdsAfter(anyInt(), anyInt());
+
+        animeIdIndex.recordMiss(3);
+
+        assertThat(animeIdIndex.mightExist(3)).isFalse();
+    }
+
+    @Test
+    @DisplayName("mightExist reflects puts and removes, including the ones made while loading")
+    public void mightExist_ReflectWrites_WhenMadeWhileLoading() {
+        Sinks.Many<Integer> ids = Sinks.many().unicast().onBackpressureBuffer();
+        when(animeRepository.findIdsAfter(anyInt(), anyInt())).thenReturn(ids.asFlux());
+
+        var load = animeIdIndex.load().toFuture();
+        animeIdIndex.put(5_000);
+        animeIdIndex.remove(2);
+        ids.tryEmitNext(1);
+        ids.tryEmitNext(2);
+        ids.tryEmitComplete();
+        load.join();
+
+        assertThat(animeIdIndex.mightExist(1)).isTrue();
+        assertThat(animeIdIndex.mightExist(2)).isFalse();
+        assertThat(animeIdIndex.mightExist(5_000)).isTrue();
+
+        animeIdIndex.remove(5_000);
+
+        assertThat(animeIdIndex.mightExist(5_000)).isFalse();
+    }
+
+    @Test
+    @DisplayName("mightExist rules out recorded misses until the id is put and allows every id while suspended")
+    public void mightExist_RuleOutRecordedMisses_UntilPut() {
+        animeIdIndex.recordMiss(7);
+
+        assertThat(animeIdIndex.mightExist(7)).isFalse();
+
+        animeIdIndex.put(7);
+
+        assertThat(animeIdIndex.mightExist(7)).isTrue();
+
+        when(animeRepository.findIdsAfter(anyInt(), anyInt())).thenReturn(Flux.just(7));
+        animeIdIndex.load().block();
+        animeIdIndex.suspend();
+
+        assertThat(animeIdIndex.isComplete()).isFalse();
+        assertThat(animeIdIndex.mightExist(8)).isTrue();
+    }
+
+}
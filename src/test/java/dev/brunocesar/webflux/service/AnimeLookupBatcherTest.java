@@ -0,0 +1,144 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.exception.KnownErrorException;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import dev.brunocesar.webflux.util.AnimeCreator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class AnimeLookupBatcherTest {
+
+    @Mock
+    private AnimeRepository animeRepository;
+
+    private AnimeProperties animeProperties;
+
+    private AnimeLookupBatcher animeLookupBatcher;
+
+    private final Anime anime = AnimeCreator.createValidAnime();
+
+    @BeforeEach
+    public void beforeEach() {
+        animeProperties = new AnimeProperties();
+        animeProperties.getLookup().setBatchWindow(Duration.ofMillis(50));
+        animeLookupBatcher = new AnimeLookupBatcher(animeRepository, animeProperties);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        animeLookupBatcher.dispose();
+    }
+
+    @Test
+    @DisplayName("findById coalesces concurrent lookups into a single query and fans the results back out")
+    public void findById_CoalescesConcurrentLookups_WhenSuccessful() {
+
+        when(animeRepository.findAllByIdIn(Set.of(1, 2))).thenReturn(Flux.just(anime));
+
+        var lookups = Mono.zip(
+                animeLookupBatcher.findById(1),
+                animeLookupBatcher.findById(2).hasElement(),
+                animeLookupBatcher.findById(1));
+
+        StepVerifier.create(lookups)
+                .expectSubscription()
+                .assertNext(results -> {
+                    Assertions.assertThat(results.getT1()).isEqualTo(anime);
+                    Assertions.assertThat(results.getT2()).isFalse();
+                    Assertions.assertThat(results.getT3()).isEqualTo(anime);
+                })
+                .verifyComplete();
+
+        verify(animeRepository, times(1)).findAllByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("findById returns Mono error to every waiting lookup when the query fails")
+    public void findById_ReturnMonoError_WhenQueryFails() {
+
+        when(animeRepository.findAllByIdIn(any())).thenReturn(Flux.error(new IllegalStateException("boom")));
+
+        StepVerifier.create(animeLookupBatcher.findById(1))
+                .expectSubscription()
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("findById answers every lookup when there are more concurrent lookups than batch slots")
+    public void findById_AnswersEveryLookup_WhenAllBatchSlotsAreBusy() {
+        animeProperties.getLookup().setMaxBatchSize(2);
+        animeProperties.getLookup().setMaxConcurrentBatches(2);
+        animeLookupBatcher = new AnimeLookupBatcher(animeRepository, animeProperties);
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+
+        when(animeRepository.findAllByIdIn(anySet())).thenAnswer(invocation -> Flux.just(anime)
+                .delaySubscription(Duration.ofMillis(5))
+                .doOnSubscribe(subscription -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                .doOnTerminate(running::decrementAndGet));
+
+        StepVerifier.create(Flux.range(0, 600)
+                        .flatMap(i -> animeLookupBatcher.findById(1), 600)
+                        .count())
+                .expectNext(600L)
+                .verifyComplete();
+
+        Assertions.assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("findById returns Mono error when the lookup waits longer than the timeout")
+    public void findById_ReturnMonoError_WhenLookupTimesOut() {
+        animeProperties.getLookup().setTimeout(Duration.ofMillis(100));
+        animeLookupBatcher = new AnimeLookupBatcher(animeRepository, animeProperties);
+
+        when(animeRepository.findAllByIdIn(any())).thenReturn(Flux.never());
+
+        StepVerifier.create(animeLookupBatcher.findById(1))
+                .expectSubscription()
+                .expectErrorMatches(error -> error == KnownErrorException.LOOKUP_UNAVAILABLE)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("findById returns Mono error without waiting when too many lookups are pending")
+    public void findById_ReturnMonoError_WhenTooManyLookupsArePending() {
+        animeProperties.getLookup().setMaxPending(1);
+        animeProperties.getLookup().setBatchWindow(Duration.ofSeconds(1));
+        animeLookupBatcher = new AnimeLookupBatcher(animeRepository, animeProperties);
+
+        when(animeRepository.findAllByIdIn(Set.of(1))).thenReturn(Flux.just(anime));
+
+        StepVerifier.create(Mono.zip(animeLookupBatcher.findById(1),
+                        animeLookupBatcher.findById(2).onErrorReturn(new Anime())))
+                .assertNext(results -> {
+                    Assertions.assertThat(results.getT1()).isEqualTo(anime);
+                    Assertions.assertThat(results.getT2()).isEqualTo(new Anime());
+                })
+                .verifyComplete();
+    }
+
+}
@@ -1,23 +1,44 @@
 package dev.brunocesar.webflux.service;
 
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.config.ReadYourWrites;
 import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.domain.AnimeImportSummary;
+import dev.brunocesar.webflux.exception.KnownErrorException;
 import dev.brunocesar.webflux.repository.AnimeRepository;
 import dev.brunocesar.webflux.util.AnimeCreator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -29,13 +50,45 @@ public class AnimeServiceTest {
     @Mock
     private AnimeRepository animeRepository;
 
+    @Spy
+    private AnimeProperties animeProperties = new AnimeProperties();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(new AnimeProperties());
+
+    @Spy
+    private AnimeCache animeCache = new AnimeCache(new AnimeProperties(), readYourWrites);
+
+    @Mock
+    private AnimeLookupBatcher animeLookupBatcher;
+
+    @Mock
+    private AnimeSuggestionIndex animeSuggestionIndex;
+
+    @Mock
+    private AnimeIdIndex animeIdIndex;
+
+    @Mock
+    private AnimeSnapshot animeSnapshot;
+
+    @Mock
+    private AnimeChangeFeed animeChangeFeed;
+
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+
     private final Anime anime = AnimeCreator.createValidAnime();
 
+    @BeforeEach
+    public void beforeEach() {
+        when(animeIdIndex.mightExist(anyInt())).thenReturn(true);
+    }
+
     @Test
     @DisplayName("findAll returns a flux of anime")
     public void findAll_ReturnFluxOfAnime_WhenSuccessful() {
 
-        when(animeRepository.findAll()).thenReturn(Flux.just(anime));
+        when(animeRepository.findPageAfter(anyInt(), anyInt())).thenReturn(Flux.just(anime));
 
         StepVerifier.create(animeService.findAll())
                 .expectSubscription()
@@ -43,6 +96,101 @@ public class AnimeServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("findAll fetches the following pages after the last ID of a full page")
+    public void findAll_FetchesNextPages_WhenPageIsFull() {
+        animeProperties.getListing().setPageSize(2);
+        var secondAnime = new Anime(2, "Naruto");
+        var thirdAnime = new Anime(3, "Bleach");
+
+        when(animeRepository.findPageAfter(0, 2)).thenReturn(Flux.just(anime, secondAnime));
+        when(animeRepository.findPageAfter(2, 2)).thenReturn(Flux.just(thirdAnime));
+
+        StepVerifier.create(animeService.findAll())
+                .expectSubscription()
+                .expectNext(anime, secondAnime, thirdAnime)
+                .verifyComplete();
+
+        verify(animeRepository, never()).findPageAfter(eq(3), anyInt());
+    }
+
+    @Test
+    @DisplayName("findPage returns a flux of anime after the given id")
+    public void findPage_ReturnFluxOfAnime_WhenSuccessful() {
+
+        when(animeRepository.findPageAfter(0, 10)).thenReturn(Flux.just(anime));
+
+        StepVerifier.create(animeService.findPage(0, 10))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findPage returns Flux error when limit is out of range")
+    public void findPage_ReturnFluxError_WhenLimitIsInvalid() {
+
+        StepVerifier.create(animeService.findPage(0, 0))
+                .expectSubscription()
+                .expectError(KnownErrorException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("search returns Flux of anime with the trimmed query and escaped pattern when successful")
+    public void search_ReturnFluxOfAnime_WhenSuccessful() {
+
+        when(animeRepository.search("50%_off", "50\\%\\_off", 20)).thenReturn(Flux.just(anime));
+
+        StepVerifier.create(animeService.search(" 50%_off ", null))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("search returns Flux error when query is shorter than the minimum length")
+    public void search_ReturnFluxError_WhenQueryIsTooShort() {
+
+        StepVerifier.create(animeService.search(" ab ", 10))
+                .expectSubscription()
+                .expectErrorMatches(error -> error instanceof KnownErrorException
+                        && ((KnownErrorException) error).getStatus() == HttpStatus.BAD_REQUEST)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("search returns Flux error when limit is out of range")
+    public void search_ReturnFluxError_WhenLimitIsInvalid() {
+
+        StepVerifier.create(animeService.search("naruto", 101))
+                .expectSubscription()
+                .expectError(KnownErrorException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("suggest returns Flux of anime from the suggestion index when successful")
+    public void suggest_ReturnFluxOfAnime_WhenSuccessful() {
+
+        when(animeSuggestionIndex.suggest("naru", 10)).thenReturn(List.of(anime));
+
+        StepVerifier.create(animeService.suggest("naru", null))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("suggest returns Flux error when prefix is blank")
+    public void suggest_ReturnFluxError_WhenPrefixIsBlank() {
+
+        StepVerifier.create(animeService.suggest(" ", null))
+                .expectSubscription()
+                .expectError(KnownErrorException.class)
+                .verify();
+    }
+
     @Test
     @DisplayName("findById returns Mono with anime when exists")
     public void findById_ReturnMonoAnime_WhenSuccessful() {
@@ -55,6 +203,49 @@ public class AnimeServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("findById serves repeated lookups of the same id from the cache")
+    public void findById_ReturnCachedAnime_WhenLookedUpTwice() {
+
+        when(animeRepository.findById(anyInt())).thenReturn(Mono.just(anime));
+
+        StepVerifier.create(animeService.findById(1).then(animeService.findById(1)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        verify(animeRepository, times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("findById delegates to the lookup batcher when batching is enabled")
+    public void findById_UsesLookupBatcher_WhenBatchingIsEnabled() {
+        animeProperties.getLookup().setBatchingEnabled(true);
+
+        when(animeLookupBatcher.findById(1)).thenReturn(Mono.just(anime));
+
+        StepVerifier.create(animeService.findById(1))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        verify(animeRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    @DisplayName("findById returns Mono Error when the lookup batcher does not find the anime")
+    public void findById_ReturnMonoError_WhenLookupBatcherReturnsEmpty() {
+        animeProperties.getLookup().setBatchingEnabled(true);
+
+        when(animeLookupBatcher.findById(1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(animeService.findById(1))
+                .expectSubscription()
+                .expectErrorMatches(error -> error instanceof KnownErrorException
+                        && ((KnownErrorException) error).getStatus() == HttpStatus.NOT_FOUND)
+                .verify();
+    }
+
     @Test
     @DisplayName("findById returns Mono Error when anime does not exist")
     public void findById_ReturnMonoError_WhenEmptyMonoIsReturned() {
@@ -63,8 +254,91 @@ public class AnimeServiceTest {
 
         StepVerifier.create(animeService.findById(1))
                 .expectSubscription()
-                .expectError(ResponseStatusException.class)
+                .expectError(KnownErrorException.class)
+                .verify();
+
+        verify(animeIdIndex).recordMiss(1);
+    }
+
+    @Test
+    @DisplayName("findById does not remember a missing id while a write may not have reached the replicas")
+    public void findById_DoNotRecordMiss_WhenWithinReadYourWritesWindow() {
+
+        when(readYourWrites.hasRecentWrites()).thenReturn(true);
+        when(animeRepository.findById(anyInt())).thenReturn(Mono.empty());
+
+        StepVerifier.create(animeService.findById(1))
+                .expectSubscription()
+                .expectError(KnownErrorException.class)
+                .verify();
+
+        verify(animeIdIndex, never()).recordMiss(anyInt());
+    }
+
+    @Test
+    @DisplayName("findById queries the repository for the caller instead of batching while a write window is open")
+    public void findById_BypassLookupBatcher_WhenWithinReadYourWritesWindow() {
+        animeProperties.getLookup().setBatchingEnabled(true);
+
+        when(readYourWrites.hasRecentWrites()).thenReturn(true);
+        when(animeRepository.findById(anyInt())).thenReturn(Mono.just(anime));
+
+        StepVerifier.create(animeService.findById(1))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        verify(animeLookupBatcher, never()).findById(anyInt());
+    }
+
+    @Test
+    @DisplayName("findById returns Mono with anime from the snapshot without querying the repository when serving")
+    public void findById_ReturnAnimeFromSnapshot_WhenSnapshotIsServing() {
+
+        when(animeSnapshot.isServing()).thenReturn(true);
+        when(animeSnapshot.get(1)).thenReturn(anime);
+
+        StepVerifier.create(animeService.findById(1).then(animeService.findById(2).onErrorResume(
+                        KnownErrorException.class, error -> Mono.empty())).then(animeService.findById(1)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        verify(animeRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    @DisplayName("findAll and findPage return the anime from the snapshot without querying the repository when serving")
+    public void findAll_ReturnAnimeFromSnapshot_WhenSnapshotIsServing() {
+
+        when(animeSnapshot.isServing()).thenReturn(true);
+        when(animeSnapshot.findAllAfter(0)).thenReturn(Flux.just(anime, new Anime(2, "Naruto")));
+
+        StepVerifier.create(animeService.findAll())
+                .expectSubscription()
+                .expectNext(anime, new Anime(2, "Naruto"))
+                .verifyComplete();
+
+        StepVerifier.create(animeService.findPage(0, 1))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        verify(animeRepository, never()).findPageAfter(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("findById returns Mono Error without querying the repository when the id index rules the id out")
+    public void findById_ReturnMonoError_WhenIdCannotExist() {
+
+        when(animeIdIndex.mightExist(42)).thenReturn(false);
+
+        StepVerifier.create(animeService.findById(42))
+                .expectSubscription()
+                .expectError(KnownErrorException.class)
                 .verify();
+
+        verify(animeRepository, never()).findById(anyInt());
     }
 
     @Test
@@ -79,13 +353,18 @@ public class AnimeServiceTest {
                 .expectSubscription()
                 .expectNext(anime)
                 .verifyComplete();
+
+        verify(animeSuggestionIndex).put(anime);
+        verify(animeIdIndex).put(anime.getId());
+        verify(animeSnapshot).put(anime);
+        verify(animeChangeFeed).created(anime);
     }
 
     @Test
     @DisplayName("saveAll creates a list of anime when successful")
     public void saveAll_CreateListOfAnime_WhenSuccessful() {
 
-        when(animeRepository.saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
+        when(animeRepository.insertAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
                 .thenReturn(Flux.just(anime, anime));
 
         var animes = List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved());
@@ -97,19 +376,166 @@ public class AnimeServiceTest {
     }
 
     @Test
-    @DisplayName("saveAll returns mono error when one of the objects in the list contains null or empty name")
-    public void saveAll_ReturnMonoError_WhenContainsInvalidName() {
+    @DisplayName("saveAll inserts the list in chunks of the configured size")
+    public void saveAll_InsertsInChunks_WhenListIsLargerThanChunkSize() {
+        animeProperties.getBatch().setChunkSize(2);
+        var animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        when(animeRepository.insertAll(List.of(animeToBeSaved, animeToBeSaved)))
+                .thenReturn(Flux.just(anime, anime));
+        when(animeRepository.insertAll(List.of(animeToBeSaved)))
+                .thenReturn(Flux.just(anime));
+
+        StepVerifier.create(animeService.saveAll(List.of(animeToBeSaved, animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(anime, anime, anime)
+                .verifyComplete();
+
+        verify(animeSuggestionIndex, times(3)).put(anime);
+        verify(animeChangeFeed, times(3)).created(anime);
+    }
+
+    @Test
+    @DisplayName("saveAll indexes none of the saved anime when a later chunk fails and the batch is rolled back")
+    public void saveAll_IndexesNothing_WhenLaterChunkFails() {
+        animeProperties.getBatch().setChunkSize(2);
+        var animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        when(animeRepository.insertAll(List.of(animeToBeSaved, animeToBeSaved)))
+                .thenReturn(Flux.just(anime, anime));
+        when(animeRepository.insertAll(List.of(animeToBeSaved)))
+                .thenReturn(Flux.error(new IllegalStateException("boom")));
+
+        StepVerifier.create(animeService.saveAll(List.of(animeToBeSaved, animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(anime, anime)
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(animeSuggestionIndex, never()).put(any());
+        verify(animeIdIndex, never()).put(anyInt());
+        verify(animeSnapshot, never()).put(any());
+        verify(animeChangeFeed, never()).created(any());
+    }
+
+    @Test
+    @DisplayName("saveAll indexes the saved anime only once the transaction has committed")
+    public void saveAll_IndexesSavedAnime_WhenTransactionCommits() {
+        var transactionManager = new RecordingTransactionManager();
+        var animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        when(animeRepository.insertAll(List.of(animeToBeSaved))).thenReturn(Flux.just(anime));
+        doAnswer(invocation -> {
+            Assertions.assertTrue(transactionManager.committed);
+            return null;
+        }).when(animeChangeFeed).created(anime);
+
+        StepVerifier.create(TransactionalOperator.create(transactionManager)
+                        .transactional(animeService.saveAll(List.of(animeToBeSaved))))
+                .expectNext(anime)
+                .verifyComplete();
+
+        verify(animeChangeFeed).created(anime);
+    }
 
-        when(animeRepository.saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), new Anime())))
-                .thenReturn(Flux.just(anime, new Anime()));
+    @Test
+    @DisplayName("saveAll returns mono error before writing when one of the objects in the list contains null or empty name")
+    public void saveAll_ReturnMonoError_WhenContainsInvalidName() {
 
         var animes = List.of(AnimeCreator.createAnimeToBeSaved(), new Anime());
 
         StepVerifier.create(animeService.saveAll(animes))
                 .expectSubscription()
-                .expectNext(anime)
-                .expectError(ResponseStatusException.class)
+                .expectError(KnownErrorException.class)
+                .verify();
+
+        verify(animeRepository, never()).insertAll(any());
+    }
+
+    @Test
+    @DisplayName("importAll writes valid animes in chunks and reports accepted and rejected counts per chunk")
+    public void importAll_ReturnSummaryPerChunk_WhenSuccessful() {
+        animeProperties.getBatch().setChunkSize(2);
+        var animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        when(animeRepository.insertAll(List.of(animeToBeSaved, animeToBeSaved)))
+                .thenReturn(Flux.just(anime, anime));
+        when(animeRepository.insertAll(List.of()))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(animeService.importAll(Flux.just(animeToBeSaved, animeToBeSaved, new Anime())))
+                .expectSubscription()
+                .expectNext(new AnimeImportSummary(0, 2, 0))
+                .expectNext(new AnimeImportSummary(1, 0, 1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("importAll reads at most one chunk ahead of the chunk being written")
+    public void importAll_ReadOneChunkAhead_WhenWriteIsPending() {
+        animeProperties.getBatch().setChunkSize(2);
+        var requested = new AtomicLong();
+        var animes = Flux.range(0, 100)
+                .map(i -> AnimeCreator.createAnimeToBeSaved())
+                .doOnRequest(requested::addAndGet);
+
+        when(animeRepository.insertAll(any())).thenReturn(Flux.never());
+
+        StepVerifier.create(animeService.importAll(animes))
+                .expectSubscription()
+                .then(() -> assertThat(requested).hasValue(4))
+                .thenCancel()
+                .verify();
+
+        verify(animeRepository, times(1)).insertAll(any());
+    }
+
+    @Test
+    @DisplayName("bulkLoad writes valid animes in bulk chunks and reports accepted and rejected counts per chunk")
+    public void bulkLoad_ReturnSummaryPerChunk_WhenSuccessful() {
+        animeProperties.getBatch().setBulkChunkSize(3);
+        var animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        when(animeRepository.bulkInsert(List.of(animeToBeSaved, animeToBeSaved)))
+                .thenReturn(Mono.just(2));
+        when(animeRepository.notifyReset()).thenReturn(Mono.empty());
+
+        StepVerifier.create(animeService.bulkLoad(Flux.just(animeToBeSaved, new Anime(), animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(new AnimeImportSummary(0, 2, 1))
+                .verifyComplete();
+
+        verify(animeIdIndex).suspend();
+        verify(animeIdIndex).resume();
+        verify(animeSnapshot).suspend();
+        verify(animeSnapshot).resume();
+        verify(animeChangeFeed).reset();
+        verify(animeRepository).notifyReset();
+    }
+
+    @Test
+    @DisplayName("bulkLoad publishes a single reset after the last chunk, also when a chunk fails")
+    public void bulkLoad_NotifyResetOnce_WhenLoadEnds() {
+        animeProperties.getBatch().setBulkChunkSize(1);
+        var animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        when(animeRepository.bulkInsert(any()))
+                .thenReturn(Mono.just(1), Mono.just(1), Mono.error(new IllegalStateException("chunk failed")));
+        when(animeRepository.notifyReset()).thenReturn(Mono.empty());
+
+        StepVerifier.create(animeService.bulkLoad(Flux.just(animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNextCount(2)
+                .verifyComplete();
+
+        verify(animeRepository, times(1)).notifyReset();
+
+        StepVerifier.create(animeService.bulkLoad(Flux.just(animeToBeSaved)))
+                .expectSubscription()
+                .expectError(IllegalStateException.class)
                 .verify();
+
+        verify(animeRepository, times(2)).notifyReset();
     }
 
     @Test
@@ -122,6 +548,11 @@ public class AnimeServiceTest {
         StepVerifier.create(animeService.delete(1))
                 .expectSubscription()
                 .verifyComplete();
+
+        verify(animeSuggestionIndex).remove(1);
+        verify(animeIdIndex).remove(1);
+        verify(animeSnapshot).remove(1);
+        verify(animeChangeFeed).deleted(1);
     }
 
     @Test
@@ -133,19 +564,59 @@ public class AnimeServiceTest {
 
         StepVerifier.create(animeService.delete(1))
                 .expectSubscription()
-                .expectError(ResponseStatusException.class)
+                .expectError(KnownErrorException.class)
                 .verify();
     }
 
     @Test
-    @DisplayName("update save updated anime and returns empty mono when successful")
+    @DisplayName("update save updated anime in a single conditional update and returns empty mono when successful")
     public void update_SaveUpdatedAnime_WhenSuccessful() {
+        var updatedAnime = AnimeCreator.createValidUpdatedAnime();
+        updatedAnime.setVersion(3L);
 
-        when(animeRepository.findById(anyInt())).thenReturn(Mono.just(AnimeCreator.createAnimeToBeSaved()));
-        when(animeRepository.save(AnimeCreator.createAnimeToBeSaved())).thenReturn(Mono.just(AnimeCreator.createValidUpdatedAnime()));
+        when(animeRepository.updateName(1, updatedAnime.getName(), 3L))
+                .thenReturn(Mono.just(new Anime(1, updatedAnime.getName(), 4L)));
 
-        StepVerifier.create(animeService.update(AnimeCreator.createValidAnime()))
+        StepVerifier.create(animeService.update(updatedAnime))
+                .expectSubscription()
+                .verifyComplete();
+
+        verify(animeRepository, never()).findById(anyInt());
+        verify(animeSuggestionIndex).put(new Anime(1, updatedAnime.getName(), 4L));
+        verify(animeChangeFeed).updated(new Anime(1, updatedAnime.getName(), 4L));
+    }
+
+    @Test
+    @DisplayName("update returns Mono error with conflict when the anime was modified since the given version")
+    public void update_ReturnMonoErrorConflict_WhenVersionIsStale() {
+        var updatedAnime = AnimeCreator.createValidUpdatedAnime();
+        updatedAnime.setVersion(3L);
+
+        when(animeRepository.updateName(1, updatedAnime.getName(), 3L))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+
+        StepVerifier.create(animeService.update(updatedAnime))
+                .expectSubscription()
+                .expectErrorMatches(error -> error instanceof KnownErrorException
+                        && ((KnownErrorException) error).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("update evicts the cached anime so the next lookup reads the updated one")
+    public void update_EvictsCachedAnime_WhenSuccessful() {
+        var updatedAnime = AnimeCreator.createValidUpdatedAnime();
+
+        when(animeRepository.findById(anyInt())).thenReturn(Mono.just(anime), Mono.just(updatedAnime));
+        when(animeRepository.updateName(1, updatedAnime.getName(), null)).thenReturn(Mono.just(updatedAnime));
+
+        StepVerifier.create(animeService.findById(1))
+                .expectNext(anime)
+                .verifyComplete();
+
+        StepVerifier.create(animeService.update(updatedAnime).then(animeService.findById(1)))
                 .expectSubscription()
+                .expectNext(updatedAnime)
                 .verifyComplete();
     }
 
@@ -153,12 +624,41 @@ public class AnimeServiceTest {
     @DisplayName("update returns Mono error when anime does exist")
     public void update_ReturnMonoError_WhenEmptyMonoIsReturned() {
 
-        when(animeRepository.findById(anyInt())).thenReturn(Mono.empty());
+        when(animeRepository.updateName(anyInt(), any(), any())).thenReturn(Mono.empty());
 
         StepVerifier.create(animeService.update(AnimeCreator.createValidAnime()))
                 .expectSubscription()
-                .expectError(ResponseStatusException.class)
+                .expectError(KnownErrorException.class)
                 .verify();
     }
 
+    private static final class RecordingTransactionManager extends AbstractReactiveTransactionManager {
+
+        private volatile boolean committed;
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+                                     TransactionDefinition definition) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                      GenericReactiveTransaction status) {
+            return Mono.fromRunnable(() -> committed = true);
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                        GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+    }
+
 }
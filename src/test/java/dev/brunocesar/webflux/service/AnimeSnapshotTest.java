@@ -0,0 +1,107 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class AnimeSnapshotTest {
+
+    @InjectMocks
+    private AnimeSnapshot animeSnapshot;
+
+    @Mock
+    private AnimeRepository animeRepository;
+
+    @Spy
+    private AnimeProperties animeProperties = enabledSnapshot();
+
+    @BeforeEach
+    public void beforeEach() {
+        when(animeRepository.findPageAfter(anyInt(), anyInt()))
+                .thenReturn(Flux.just(new Anime(1, "Naruto", 0L), new Anime(2, "Bleach", 3L), new Anime(4, "Nana", 1L)));
+    }
+
+    @Test
+    @DisplayName("findAllAfter returns the loaded anime in id order and serves only once loaded")
+    public void findAllAfter_ReturnAnimeInIdOrder_WhenLoaded() {
+        assertThat(animeSnapshot.isServing()).isFalse();
+
+        StepVerifier.create(animeSnapshot.load())
+                .expectNext(3)
+                .verifyComplete();
+
+        assertThat(animeSnapshot.isServing()).isTrue();
+        assertThat(animeSnapshot.get(2)).isEqualTo(new Anime(2, "Bleach", 3L));
+        assertThat(animeSnapshot.get(3)).isNull();
+        assertThat(animeSnapshot.getCatalogueVersion()).isEqualTo("3.4.4");
+        StepVerifier.create(animeSnapshot.findAllAfter(1))
+                .expectNext(new Anime(2, "Bleach", 3L), new Anime(4, "Nana", 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("get and the catalogue version reflect puts, renames and removes, including the ones made while loading")
+    public void get_ReflectWrites_WhenMadeWhileLoading() {
+        Sinks.Many<Anime> animes = Sinks.many().unicast().onBackpressureBuffer();
+        when(animeRepository.findPageAfter(anyInt(), anyInt())).thenReturn(animes.asFlux());
+
+        var load = animeSnapshot.load().toFuture();
+        animeSnapshot.put(new Anime(5, "One Piece", 0L));
+        animeSnapshot.remove(1);
+        animes.tryEmitNext(new Anime(1, "Naruto", 0L));
+        animes.tryEmitNext(new Anime(2, "Bleach", 0L));
+        animes.tryEmitComplete();
+        load.join();
+
+        assertThat(animeSnapshot.get(1)).isNull();
+        assertThat(animeSnapshot.get(5)).isEqualTo(new Anime(5, "One Piece", 0L));
+
+        animeSnapshot.put(new Anime(2, "Bleach: Thousand-Year Blood War", 1L));
+        animeSnapshot.remove(5);
+
+        assertThat(animeSnapshot.get(2).getName()).isEqualTo("Bleach: Thousand-Year Blood War");
+        assertThat(animeSnapshot.getCatalogueVersion()).isEqualTo("1.2.1");
+    }
+
+    @Test
+    @DisplayName("put grows the table and keeps every anime and the memory estimates when it passes its capacity")
+    public void put_KeepEveryAnime_WhenTableGrows() {
+        animeSnapshot.load().block();
+        long tableBytes = animeSnapshot.getTableBytes();
+
+        IntStream.rangeClosed(5, 5_000).forEach(id -> animeSnapshot.put(new Anime(id, "Anime " + id)));
+        IntStream.rangeClosed(5, 5_000).filter(id -> id % 2 == 0).forEach(animeSnapshot::remove);
+
+        assertThat(animeSnapshot.size()).isEqualTo(2_501);
+        assertThat(animeSnapshot.get(4_999)).isEqualTo(new Anime(4_999, "Anime 4999"));
+        assertThat(animeSnapshot.get(5_000)).isNull();
+        assertThat(animeSnapshot.getTableBytes()).isGreaterThan(tableBytes);
+        assertThat(animeSnapshot.getEntriesBytes()).isGreaterThan(2_501L * 24);
+        assertThat(animeSnapshot.findAllAfter(0).count().block()).isEqualTo(2_501);
+    }
+
+    private static AnimeProperties enabledSnapshot() {
+        var animeProperties = new AnimeProperties();
+        animeProperties.getSnapshot().setEnabled(true);
+        return animeProperties;
+    }
+
+}
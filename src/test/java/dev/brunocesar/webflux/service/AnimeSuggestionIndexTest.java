@@ -0,0 +1,80 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.Anime;
+import dev.brunocesar.webflux.repository.AnimeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class AnimeSuggestionIndexTest {
+
+    @InjectMocks
+    private AnimeSuggestionIndex animeSuggestionIndex;
+
+    @Mock
+    private AnimeRepository animeRepository;
+
+    @Spy
+    private AnimeProperties animeProperties = new AnimeProperties();
+
+    @Test
+    @DisplayName("suggest returns the names starting with the prefix in alphabetical order ignoring case and accents")
+    public void suggest_ReturnMatchingNamesInOrder_WhenLoaded() {
+        when(animeRepository.findPageAfter(anyInt(), anyInt())).thenReturn(Flux.just(
+                new Anime(1, "Naruto Shippuden"), new Anime(2, "Bleach"), new Anime(3, "Naruto"),
+                new Anime(4, "Nânatsu no Taizai")));
+
+        StepVerifier.create(animeSuggestionIndex.load())
+                .expectNext(4)
+                .verifyComplete();
+
+        assertThat(animeSuggestionIndex.suggest("NA", 10)).containsExactly(
+                new Anime(4, "Nânatsu no Taizai"), new Anime(3, "Naruto"), new Anime(1, "Naruto Shippuden"));
+        assertThat(animeSuggestionIndex.suggest("naru", 1)).containsExactly(new Anime(3, "Naruto"));
+        assertThat(animeSuggestionIndex.suggest("one", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("suggest reflects puts, renames and removes made after the index was loaded")
+    public void suggest_ReflectWrites_WhenIndexIsUpdated() {
+        when(animeRepository.findPageAfter(anyInt(), anyInt()))
+                .thenReturn(Flux.just(new Anime(1, "Naruto"), new Anime(2, "Bleach")));
+        animeSuggestionIndex.load().block();
+
+        animeSuggestionIndex.put(new Anime(3, "Nana"));
+        animeSuggestionIndex.put(new Anime(2, "Nagi no Asukara"));
+        animeSuggestionIndex.remove(1);
+
+        assertThat(animeSuggestionIndex.suggest("na", 10))
+                .containsExactly(new Anime(2, "Nagi no Asukara"), new Anime(3, "Nana"));
+        assertThat(animeSuggestionIndex.suggest("bl", 10)).isEmpty();
+        assertThat(animeSuggestionIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("suggest returns the same results after the delta is merged into the sorted arrays")
+    public void suggest_ReturnSameResults_WhenDeltaIsCompacted() {
+        animeSuggestionIndex.put(new Anime(1, "Naruto"));
+        animeSuggestionIndex.put(new Anime(2, "Nana"));
+        animeSuggestionIndex.compact();
+        animeSuggestionIndex.put(new Anime(3, "Bleach"));
+        animeSuggestionIndex.remove(2);
+        animeSuggestionIndex.compact();
+
+        assertThat(animeSuggestionIndex.suggest("na", 10)).containsExactly(new Anime(1, "Naruto"));
+        assertThat(animeSuggestionIndex.size()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,60 @@
+package dev.brunocesar.webflux.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+public class PipelineMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics(meterRegistry);
+
+    @Test
+    @DisplayName("stage records one timing per subscription under the outcome of the publisher")
+    public void stage_RecordTimingPerOutcome_WhenPublishersTerminate() {
+        var stage = pipelineMetrics.stage("anime.test", "find", "layer", "service");
+
+        StepVerifier.create(stage.time(Mono.just(1)))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(stage.time(Flux.range(1, 3)))
+                .expectNextCount(3)
+                .verifyComplete();
+        StepVerifier.create(stage.time(Mono.error(new IllegalStateException())))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(stage.time(Mono.never()))
+                .thenCancel()
+                .verify();
+
+        assertThat(count("success")).isEqualTo(2);
+        assertThat(count("error")).isEqualTo(1);
+        assertThat(count("cancelled")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("stage does not record anything until the publisher is subscribed")
+    public void stage_RecordNothing_WhenPublisherIsNotSubscribed() {
+        var stage = pipelineMetrics.stage("anime.test", "find", "layer", "service");
+
+        stage.time(Mono.just(1));
+
+        assertThat(count("success")).isZero();
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.get("anime.test")
+                .tags("operation", "find", "outcome", outcome, "layer", "service")
+                .timer()
+                .count();
+    }
+
+}
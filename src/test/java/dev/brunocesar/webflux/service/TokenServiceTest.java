@@ -0,0 +1,84 @@
+package dev.brunocesar.webflux.service;
+
+import dev.brunocesar.webflux.config.AnimeProperties;
+import dev.brunocesar.webflux.domain.User;
+import dev.brunocesar.webflux.util.UserCreator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenServiceTest {
+
+    private final User admin = new UserCreator().createAdmin();
+
+    private final UsernamePasswordAuthenticationToken authentication =
+            new UsernamePasswordAuthenticationToken(admin, admin.getPassword(), admin.getAuthorities());
+
+    @Test
+    @DisplayName("verify returns the username and authorities of an issued token")
+    public void verify_ReturnAuthentication_WhenTokenIsValid() {
+        var tokenService = tokenService(Duration.ofMinutes(1), "secret");
+        var authToken = tokenService.issue(authentication);
+
+        StepVerifier.create(tokenService.verify(authToken.getToken()))
+                .expectSubscription()
+                .assertNext(verified -> {
+                    assertThat(verified.getName()).isEqualTo(admin.getUsername());
+                    assertThat(verified.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                            .collect(Collectors.toList())).containsExactly("ROLE_ADMIN", "ROLE_USER");
+                })
+                .verifyComplete();
+
+        assertThat(authToken.getTokenType()).isEqualTo("Bearer");
+        assertThat(authToken.getExpiresIn()).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("verify returns Mono error when the token was signed with another key")
+    public void verify_ReturnMonoError_WhenSignatureDoesNotMatch() {
+        var token = tokenService(Duration.ofMinutes(1), "secret").issue(authentication).getToken();
+
+        StepVerifier.create(tokenService(Duration.ofMinutes(1), "other-secret").verify(token))
+                .expectSubscription()
+                .expectError(BadCredentialsException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("verify returns Mono error when the token has expired")
+    public void verify_ReturnMonoError_WhenTokenIsExpired() {
+        var tokenService = tokenService(Duration.ZERO, "secret");
+        var token = tokenService.issue(authentication).getToken();
+
+        StepVerifier.create(tokenService.verify(token))
+                .expectSubscription()
+                .expectError(BadCredentialsException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("verify returns Mono error when the token is malformed")
+    public void verify_ReturnMonoError_WhenTokenIsMalformed() {
+        StepVerifier.create(tokenService(Duration.ofMinutes(1), "secret").verify("not-a-token"))
+                .expectSubscription()
+                .expectError(BadCredentialsException.class)
+                .verify();
+    }
+
+    private static TokenService tokenService(Duration ttl, String secret) {
+        var animeProperties = new AnimeProperties();
+        animeProperties.getSecurity().getToken().setEnabled(true);
+        animeProperties.getSecurity().getToken().setTtl(ttl);
+        animeProperties.getSecurity().getToken().setSecret(secret);
+        return new TokenService(animeProperties);
+    }
+
+}
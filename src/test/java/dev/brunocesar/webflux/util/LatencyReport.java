@@ -0,0 +1,74 @@
+package dev.brunocesar.webflux.util;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency histograms and error counts per endpoint, printed as throughput and p50/p99/p999.
+ */
+public class LatencyReport {
+
+    private static final long MAX_TRACKABLE_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+
+    public LatencyReport(Collection<String> endpoints) {
+        for (String endpoint : endpoints) {
+            latencies.put(endpoint, new ConcurrentHistogram(MAX_TRACKABLE_LATENCY, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    public void recordLatency(String endpoint, long nanos) {
+        latencies.get(endpoint).recordValue(Math.min(nanos, MAX_TRACKABLE_LATENCY));
+    }
+
+    public void recordError(String endpoint) {
+        errors.get(endpoint).increment();
+    }
+
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public void print(PrintStream out, Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        var total = new Histogram(MAX_TRACKABLE_LATENCY, 3);
+        out.printf("%-24s %10s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        latencies.forEach((endpoint, histogram) -> {
+            total.add(histogram);
+            print(out, endpoint, histogram, errors.get(endpoint).sum(), seconds);
+        });
+        print(out, "total", total, getErrorCount(), seconds);
+    }
+
+    private static void print(PrintStream out, String endpoint, Histogram histogram, long errors, double seconds) {
+        out.printf("%-24s %10d %10.0f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                endpoint,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                errors,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+}
@@ -23,4 +23,12 @@ public class WebTestClientUtil {
                 .build();
     }
 
+    public WebTestClient authenticateClientWithToken(String token) {
+        return WebTestClient.bindToApplicationContext(applicationContext)
+                .apply(SecurityMockServerConfigurers.springSecurity())
+                .configureClient()
+                .defaultHeaders(headers -> headers.setBearerAuth(token))
+                .build();
+    }
+
 }